@@ -0,0 +1,80 @@
+package com.plotarmordb.core.cache;
+
+import com.plotarmordb.core.config.CacheConfig;
+import com.plotarmordb.core.embedding.SparseEmbedding;
+import com.plotarmordb.core.metrics.CacheMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Query text -> embedding, so repeated text searches skip tokenization and embedding.
+// Embeddings are kept sparse; a hit expands a fresh dense copy. Queries embed unknown terms
+// as nothing, so an entry made before the vocabulary last grew is recomputed.
+public class EmbeddingCache {
+    // A short query and its few non-zero terms
+    private static final int TYPICAL_ENTRY_BYTES = 256;
+
+    private final TinyLfuCache<String, Entry> cache;
+
+    public EmbeddingCache(CacheConfig config) {
+        this.cache = new TinyLfuCache<>(config.getEmbeddingMaxBytes(),
+                TimeUnit.SECONDS.toNanos(config.getTtlSeconds()), Entry::estimatedBytes,
+                config.getEmbeddingMaxBytes() / TYPICAL_ENTRY_BYTES);
+    }
+
+    public float[] getOrCompute(String text, long vocabularyGeneration, Function<String, SparseEmbedding> embedder) {
+        String key = normalize(text);
+        Entry cached = cache.get(key);
+        if (cached != null && cached.vocabularyGeneration == vocabularyGeneration) {
+            return cached.embedding.toDense();
+        }
+
+        SparseEmbedding embedding = embedder.apply(text);
+        cache.put(key, new Entry(embedding, key.length(), vocabularyGeneration));
+        return embedding.toDense();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public CacheMetrics getMetrics() {
+        return cache.getMetrics();
+    }
+
+    // Only folds differences the embedding ignores anyway: case and runs of whitespace
+    private static String normalize(String text) {
+        String lower = text.toLowerCase();
+        StringBuilder normalized = new StringBuilder(lower.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c == ' ' || (c >= '\t' && c <= '\r')) { // same set as the tokenizer's \s
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static final class Entry {
+        private final SparseEmbedding embedding;
+        private final int keyLength;
+        private final long vocabularyGeneration;
+
+        Entry(SparseEmbedding embedding, int keyLength, long vocabularyGeneration) {
+            this.embedding = embedding;
+            this.keyLength = keyLength;
+            this.vocabularyGeneration = vocabularyGeneration;
+        }
+
+        long estimatedBytes() {
+            return 64 + 2L * keyLength + embedding.estimatedBytes();
+        }
+    }
+}
@@ -1,170 +1,286 @@
 package com.plotarmordb.core.cache;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.plotarmordb.core.model.SearchResult;
 import com.plotarmordb.core.config.CacheConfig;
 import com.plotarmordb.core.metrics.CacheMetrics;
 
-import java.util.List;
-import java.util.Objects;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.atomic.LongAdder;
-import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 public class SearchCache implements AutoCloseable {
-    private final ConcurrentHashMap<CacheKey, CacheEntry> cache;
-    private final int maxSize;
-    private final ReentrantReadWriteLock evictionLock;
-    private final CacheMetrics metrics;
+    // Sparse queries up to this many non-zeros are kept for an exact check on every hit;
+    // denser ones rely on the 128-bit fingerprint alone
+    private static final int MAX_VERIFIED_NON_ZEROS = 2048;
+    // Rough per-object overheads used to estimate an entry's heap footprint
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final int ARRAY_OVERHEAD_BYTES = 16;
+    private static final int STRING_OVERHEAD_BYTES = 56;
+    // About a top-10 result list with its key
+    private static final int TYPICAL_ENTRY_BYTES = 1024;
 
-    // Metrics counters
-    private final LongAdder hits;
-    private final LongAdder misses;
-    private final LongAdder evictions;
+    private final TinyLfuCache<CacheKey, CacheEntry> cache;
 
     public SearchCache(CacheConfig config) {
-        this.maxSize = config.getMaxSize();
-        this.cache = new ConcurrentHashMap<>();
-        this.evictionLock = new ReentrantReadWriteLock();
-        this.metrics = new CacheMetrics();
-
-        this.hits = new LongAdder();
-        this.misses = new LongAdder();
-        this.evictions = new LongAdder();
+        long expireAfterAccessNanos = TimeUnit.SECONDS.toNanos(config.getTtlSeconds());
+        this.cache = config.getMaxBytes() > 0
+                ? new TinyLfuCache<>(config.getMaxBytes(), expireAfterAccessNanos, CacheEntry::estimatedBytes,
+                config.getMaxBytes() / TYPICAL_ENTRY_BYTES)
+                : new TinyLfuCache<>(config.getMaxSize(), expireAfterAccessNanos);
+    }
+
+    public static Query query(float[] queryVector, int topK, Map<String, String> filter) {
+        return new Query(queryVector, topK, filter);
+    }
+
+    // generation is the storage write stamp for the query's filter; entries from older stamps are stale
+    // Only ids and scores are cached; callers fetch the vectors again to build results
+    public CachedResults get(Query query, long generation) {
+        CacheEntry entry = cache.get(query.key,
+                cached -> cached.generation == generation && cached.matches(query));
+        return entry != null ? entry.results : null;
+    }
+
+    public void put(Query query, long generation, List<SearchResult> results) {
+        cache.put(query.key, new CacheEntry(new CachedResults(results), generation, query));
+    }
+
+    // Hydration found an id missing, e.g. a delete raced with the stamp; drop the entry
+    public void invalidate(Query query) {
+        cache.invalidate(query.key);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public CacheMetrics getMetrics() {
+        return cache.getMetrics();
+    }
+
+    @Override
+    public void close() {
+        clear();
     }
 
-    public List<SearchResult> get(float[] queryVector, int topK, String filterHash) {
-        CacheKey key = new CacheKey(queryVector, topK, filterHash);
-        CacheEntry entry = cache.get(key);
+    public static final class Query {
+        private final CacheKey key;
+        private final int[] indices;
+        private final float[] values;
+
+        private Query(float[] queryVector, int topK, Map<String, String> filter) {
+            int nonZeros = 0;
+            for (float value : queryVector) {
+                if (value != 0.0f) {
+                    nonZeros++;
+                }
+            }
+
+            this.indices = new int[nonZeros];
+            this.values = new float[nonZeros];
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            hasher.putInt(queryVector.length);
+            for (int i = 0, n = 0; i < queryVector.length; i++) {
+                float value = queryVector[i];
+                if (value != 0.0f) {
+                    indices[n] = i;
+                    values[n++] = value;
+                    hasher.putInt(i).putInt(Float.floatToIntBits(value));
+                }
+            }
+
+            byte[] fingerprint = hasher.hash().asBytes();
+            this.key = new CacheKey(toLong(fingerprint, 0), toLong(fingerprint, 8), topK, canonicalize(filter));
+        }
 
-        if (entry != null && !isExpired(entry)) {
-            hits.increment();
-            entry.updateAccessTime();
-            return entry.getResults();
+        int topK() {
+            return key.topK;
         }
 
-        if (entry != null) {
-            // Entry exists but is expired
-            cache.remove(key);
+        String filter() {
+            return key.filter;
         }
 
-        misses.increment();
-        return null;
-    }
+        int[] indices() {
+            return indices;
+        }
 
-    public void put(float[] queryVector, int topK, String filterHash, List<SearchResult> results) {
-        CacheKey key = new CacheKey(queryVector, topK, filterHash);
+        float[] values() {
+            return values;
+        }
 
-        evictionLock.readLock().lock();
-        try {
-            if (cache.size() >= maxSize) {
-                evict();
+        // Cosine similarity, since engine queries are normalized before they get here
+        double dot(int[] otherIndices, float[] otherValues) {
+            double dot = 0.0;
+            int i = 0;
+            int j = 0;
+            while (i < indices.length && j < otherIndices.length) {
+                if (indices[i] == otherIndices[j]) {
+                    dot += (double) values[i++] * otherValues[j++];
+                } else if (indices[i] < otherIndices[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
             }
+            return dot;
+        }
 
-            cache.put(key, new CacheEntry(results));
+        private static long toLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (bytes[i] & 0xffL);
+            }
+            return value;
+        }
 
-        } finally {
-            evictionLock.readLock().unlock();
+        // Sorted and length-prefixed, so equal filters always produce the same string
+        private static String canonicalize(Map<String, String> filter) {
+            if (filter == null || filter.isEmpty()) {
+                return "";
+            }
+            StringBuilder canonical = new StringBuilder();
+            for (Map.Entry<String, String> entry : new TreeMap<>(filter).entrySet()) {
+                appendField(canonical, entry.getKey());
+                appendField(canonical, entry.getValue());
+            }
+            return canonical.toString();
         }
-    }
 
-    private void evict() {
-        evictionLock.writeLock().lock();
-        try {
-            if (cache.size() >= maxSize) {
-                // LRU eviction - remove oldest 20% of entries
-                int toRemove = Math.max(1, cache.size() / 5);
-
-                cache.entrySet().stream()
-                        .sorted((e1, e2) ->
-                                e1.getValue().getLastAccessTime().compareTo(e2.getValue().getLastAccessTime()))
-                        .limit(toRemove)
-                        .forEach(entry -> {
-                            cache.remove(entry.getKey());
-                            evictions.increment();
-                        });
+        private static void appendField(StringBuilder canonical, String field) {
+            if (field == null) {
+                canonical.append("-1:");
+            } else {
+                canonical.append(field.getBytes(StandardCharsets.UTF_8).length).append(':').append(field);
             }
-        } finally {
-            evictionLock.writeLock().unlock();
         }
     }
 
-    private boolean isExpired(CacheEntry entry) {
-        // Consider entry expired if it hasn't been accessed in last hour
-        return entry.getLastAccessTime().plusSeconds(3600).isBefore(Instant.now());
-    }
+    public static final class CachedResults {
+        private final String[] ids;
+        private final double[] scores;
 
-    public void clear() {
-        evictionLock.writeLock().lock();
-        try {
-            cache.clear();
-        } finally {
-            evictionLock.writeLock().unlock();
+        CachedResults(List<SearchResult> results) {
+            this.ids = new String[results.size()];
+            this.scores = new double[results.size()];
+            for (int i = 0; i < ids.length; i++) {
+                SearchResult result = results.get(i);
+                ids[i] = result.getVector().getId();
+                scores[i] = result.getSimilarity();
+            }
         }
-    }
 
-    public CacheMetrics getMetrics() {
-        metrics.setHits(hits.sum());
-        metrics.setMisses(misses.sum());
-        metrics.setEvictions(evictions.sum());
-        metrics.setSize(cache.size());
-        return metrics;
-    }
+        private CachedResults(String[] ids, double[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
 
-    @Override
-    public void close() {
-        clear();
-    }
+        public int size() {
+            return ids.length;
+        }
 
-    private static class CacheKey {
-        private final float[] queryVector;
-        private final int topK;
-        private final String filterHash;
+        CachedResults truncate(int size) {
+            return size >= ids.length ? this : new CachedResults(
+                    Arrays.copyOf(ids, size), Arrays.copyOf(scores, size));
+        }
 
-        CacheKey(float[] queryVector, int topK, String filterHash) {
-            this.queryVector = Arrays.copyOf(queryVector, queryVector.length);
-            this.topK = topK;
-            this.filterHash = filterHash;
+        public String getId(int index) {
+            return ids[index];
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            CacheKey cacheKey = (CacheKey) o;
-            return topK == cacheKey.topK &&
-                    Arrays.equals(queryVector, cacheKey.queryVector) &&
-                    Objects.equals(filterHash, cacheKey.filterHash);
+        public double getScore(int index) {
+            return scores[index];
         }
 
-        @Override
-        public int hashCode() {
-            int result = Objects.hash(topK, filterHash);
-            result = 31 * result + Arrays.hashCode(queryVector);
-            return result;
+        public List<String> getIds() {
+            return Arrays.asList(ids.clone());
+        }
+
+        long estimatedBytes() {
+            long bytes = 2L * ARRAY_OVERHEAD_BYTES + (long) ids.length * (Integer.BYTES + Double.BYTES);
+            for (String id : ids) {
+                bytes += STRING_OVERHEAD_BYTES + (id == null ? 0 : 2L * id.length());
+            }
+            return bytes;
         }
     }
 
     private static class CacheEntry {
-        private final List<SearchResult> results;
-        private volatile Instant lastAccessTime;
+        private final CachedResults results;
+        private final long generation;
+        private final int[] indices;
+        private final float[] values;
+        private final String filter;
+
+        CacheEntry(CachedResults results, long generation, Query query) {
+            this.results = results;
+            this.generation = generation;
+            boolean verifiable = query.indices.length <= MAX_VERIFIED_NON_ZEROS;
+            this.indices = verifiable ? query.indices : null;
+            this.values = verifiable ? query.values : null;
+            this.filter = query.key.filter;
+        }
+
+        long estimatedBytes() {
+            long bytes = ENTRY_OVERHEAD_BYTES + results.estimatedBytes()
+                    + STRING_OVERHEAD_BYTES + 2L * filter.length();
+            if (indices != null) {
+                bytes += 2L * ARRAY_OVERHEAD_BYTES + (long) indices.length * (Integer.BYTES + Float.BYTES);
+            }
+            return bytes;
+        }
 
-        CacheEntry(List<SearchResult> results) {
-            this.results = List.copyOf(results); // Immutable copy
-            this.lastAccessTime = Instant.now();
+        boolean matches(Query query) {
+            if (indices == null) {
+                return true;
+            }
+            if (indices.length != query.indices.length) {
+                return false;
+            }
+            for (int i = 0; i < indices.length; i++) {
+                if (indices[i] != query.indices[i]
+                        || Float.floatToIntBits(values[i]) != Float.floatToIntBits(query.values[i])) {
+                    return false;
+                }
+            }
+            return true;
         }
+    }
 
-        List<SearchResult> getResults() {
-            return results;
+    private static final class CacheKey {
+        private final long fingerprintHigh;
+        private final long fingerprintLow;
+        private final int topK;
+        private final String filter;
+        private final int hash;
+
+        CacheKey(long fingerprintHigh, long fingerprintLow, int topK, String filter) {
+            this.fingerprintHigh = fingerprintHigh;
+            this.fingerprintLow = fingerprintLow;
+            this.topK = topK;
+            this.filter = filter;
+            this.hash = 31 * (31 * (int) fingerprintLow + topK) + filter.hashCode();
         }
 
-        Instant getLastAccessTime() {
-            return lastAccessTime;
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return fingerprintHigh == cacheKey.fingerprintHigh &&
+                    fingerprintLow == cacheKey.fingerprintLow &&
+                    topK == cacheKey.topK &&
+                    filter.equals(cacheKey.filter);
         }
 
-        void updateAccessTime() {
-            this.lastAccessTime = Instant.now();
+        @Override
+        public int hashCode() {
+            return hash;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,231 @@
+package com.plotarmordb.core.cache;
+
+import com.plotarmordb.core.config.CacheConfig;
+import com.plotarmordb.core.metrics.SemanticCacheMetrics;
+import com.plotarmordb.core.model.SearchResult;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Approximate result cache for near-duplicate queries. Queries are bucketed by random-hyperplane
+// LSH (SimHash) in several independent tables; a lookup compares the query against the entries
+// sharing any of its buckets and serves the closest one above the similarity threshold.
+public class SemanticCache {
+    private static final int TABLES = 4;
+    private static final int BITS_PER_TABLE = 12;
+    private static final int BUCKET_CAPACITY = 8;
+    // Every Nth hit is also answered by a full scan to measure recall
+    private static final int VERIFY_EVERY = 64;
+    // A result list plus the sparse query it was ranked for
+    private static final int TYPICAL_ENTRY_BYTES = 2048;
+
+    private final double threshold;
+    private final TinyLfuCache<Long, Entry> entries;
+    // (table, signature) -> ids of the most recent entries in that bucket; stale ids just miss
+    private final ConcurrentHashMap<Long, long[]> buckets;
+    private final AtomicLong nextId;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder candidatesExamined;
+    private final DoubleAdder hitSimilarity;
+    private final AtomicLong minHitSimilarityBits;
+    private final LongAdder verifiedHits;
+    private final DoubleAdder verifiedRecall;
+
+    public SemanticCache(CacheConfig config) {
+        this.threshold = config.getSemanticThreshold();
+        this.entries = new TinyLfuCache<>(config.getSemanticMaxBytes(),
+                TimeUnit.SECONDS.toNanos(config.getTtlSeconds()), Entry::estimatedBytes,
+                config.getSemanticMaxBytes() / TYPICAL_ENTRY_BYTES);
+        this.buckets = new ConcurrentHashMap<>();
+        this.nextId = new AtomicLong();
+
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.candidatesExamined = new LongAdder();
+        this.hitSimilarity = new DoubleAdder();
+        this.minHitSimilarityBits = new AtomicLong(Double.doubleToLongBits(1.0));
+        this.verifiedHits = new LongAdder();
+        this.verifiedRecall = new DoubleAdder();
+    }
+
+    public Match get(SearchCache.Query query, long generation) {
+        long[] signatures = signatures(query);
+        Set<Long> seen = new HashSet<>();
+        Entry best = null;
+        double bestSimilarity = threshold;
+
+        for (int table = 0; table < TABLES; table++) {
+            long[] ids = buckets.get(bucketKey(table, signatures[table]));
+            if (ids == null) {
+                continue;
+            }
+            for (long id : ids) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                // Generations are stamped per filter, so they only compare once the filter matches;
+                // an entry from an older generation is skipped and left to age out
+                Entry entry = entries.get(id);
+                if (entry == null || entry.topK < query.topK() || !entry.filter.equals(query.filter())
+                        || entry.generation != generation) {
+                    continue;
+                }
+                candidatesExamined.increment();
+                double similarity = query.dot(entry.indices, entry.values);
+                if (similarity >= bestSimilarity) {
+                    best = entry;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+
+        if (best == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        hitSimilarity.add(bestSimilarity);
+        long bits = Double.doubleToLongBits(bestSimilarity);
+        minHitSimilarityBits.accumulateAndGet(bits,
+                (current, candidate) -> Double.longBitsToDouble(candidate) < Double.longBitsToDouble(current)
+                        ? candidate : current);
+        boolean verify = hits.sum() % VERIFY_EVERY == 0;
+        return new Match(best.results.truncate(query.topK()), bestSimilarity, verify);
+    }
+
+    public void put(SearchCache.Query query, long generation, List<SearchResult> results) {
+        long id = nextId.incrementAndGet();
+        entries.put(id, new Entry(query, generation, new SearchCache.CachedResults(results)));
+
+        long[] signatures = signatures(query);
+        for (int table = 0; table < TABLES; table++) {
+            buckets.merge(bucketKey(table, signatures[table]), new long[]{id}, SemanticCache::appendBounded);
+        }
+    }
+
+    // Records how many of the exact top-k ids the approximate hit would have returned
+    public void recordVerification(Match match, List<SearchResult> exact) {
+        if (exact.isEmpty()) {
+            return;
+        }
+        Set<String> served = new HashSet<>(match.getResults().getIds());
+        int found = 0;
+        for (SearchResult result : exact) {
+            if (served.contains(result.getVector().getId())) {
+                found++;
+            }
+        }
+        verifiedHits.increment();
+        verifiedRecall.add((double) found / exact.size());
+    }
+
+    public void clear() {
+        entries.clear();
+        buckets.clear();
+    }
+
+    public SemanticCacheMetrics getMetrics() {
+        SemanticCacheMetrics metrics = new SemanticCacheMetrics();
+        long hitCount = hits.sum();
+        long verified = verifiedHits.sum();
+        metrics.setHits(hitCount);
+        metrics.setMisses(misses.sum());
+        metrics.setCandidatesExamined(candidatesExamined.sum());
+        metrics.setAverageHitSimilarity(hitCount == 0 ? 0.0 : hitSimilarity.sum() / hitCount);
+        metrics.setMinHitSimilarity(hitCount == 0 ? 0.0 : Double.longBitsToDouble(minHitSimilarityBits.get()));
+        metrics.setVerifiedHits(verified);
+        metrics.setAverageRecall(verified == 0 ? 0.0 : verifiedRecall.sum() / verified);
+        metrics.setSize(entries.size());
+        return metrics;
+    }
+
+    private static long[] appendBounded(long[] existing, long[] added) {
+        int keep = Math.min(existing.length, BUCKET_CAPACITY - 1);
+        long[] merged = new long[keep + 1];
+        System.arraycopy(existing, existing.length - keep, merged, 0, keep);
+        merged[keep] = added[0];
+        return merged;
+    }
+
+    private static long bucketKey(int table, long signature) {
+        return ((long) table << 32) | signature;
+    }
+
+    // Hyperplane components are pseudo-random +/-1 values derived from (plane, index), so the
+    // planes cost nothing to store and only the query's non-zero entries are visited
+    private static long[] signatures(SearchCache.Query query) {
+        int[] indices = query.indices();
+        float[] values = query.values();
+        long[] signatures = new long[TABLES];
+        for (int table = 0; table < TABLES; table++) {
+            long signature = 0;
+            for (int bit = 0; bit < BITS_PER_TABLE; bit++) {
+                long plane = (long) table * BITS_PER_TABLE + bit;
+                double projection = 0.0;
+                for (int i = 0; i < indices.length; i++) {
+                    projection += (mix(plane, indices[i]) & 1) == 0 ? values[i] : -values[i];
+                }
+                if (projection >= 0) {
+                    signature |= 1L << bit;
+                }
+            }
+            signatures[table] = signature;
+        }
+        return signatures;
+    }
+
+    private static long mix(long plane, int index) {
+        long h = plane * 0x9e3779b97f4a7c15L + index;
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    public static final class Match {
+        private final SearchCache.CachedResults results;
+        private final double similarity;
+        private final boolean verify;
+
+        Match(SearchCache.CachedResults results, double similarity, boolean verify) {
+            this.results = results;
+            this.similarity = similarity;
+            this.verify = verify;
+        }
+
+        // Scores belong to the cached query, not the one being served
+        public SearchCache.CachedResults getResults() { return results; }
+        public double getSimilarity() { return similarity; }
+        public boolean shouldVerify() { return verify; }
+    }
+
+    private static final class Entry {
+        private final int[] indices;
+        private final float[] values;
+        private final int topK;
+        private final String filter;
+        private final long generation;
+        private final SearchCache.CachedResults results;
+
+        Entry(SearchCache.Query query, long generation, SearchCache.CachedResults results) {
+            this.indices = query.indices();
+            this.values = query.values();
+            this.topK = query.topK();
+            this.filter = query.filter();
+            this.generation = generation;
+            this.results = results;
+        }
+
+        long estimatedBytes() {
+            return 128 + 8L * indices.length + 2L * filter.length() + results.estimatedBytes();
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.plotarmordb.core.cache;
+
+import com.plotarmordb.core.metrics.CacheMetrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+// Bounded concurrent cache with a W-TinyLFU policy: a small LRU admission window in front of a
+// segmented LRU (probation + protected), with a frequency sketch deciding which entry survives.
+// Every policy operation is O(1); reads only touch the policy through a lossy buffer.
+// Capacity is a total weight: one per entry by default, or whatever the weigher reports.
+public class TinyLfuCache<K, V> {
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = 32;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ReentrantLock policyLock;
+    private final FrequencySketch sketch;
+    private final AccessOrderDeque<K, V> window;
+    private final AccessOrderDeque<K, V> probation;
+    private final AccessOrderDeque<K, V> protectedSegment;
+    private final ToLongFunction<? super V> weigher;
+    private final long maximumSize;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long expireAfterAccessNanos;
+
+    private final AtomicReferenceArray<Node<K, V>> readBuffer;
+    private final AtomicLong readBufferWrites;
+    private volatile long readBufferReads;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    public TinyLfuCache(long maximumSize, long expireAfterAccessNanos) {
+        this(maximumSize, expireAfterAccessNanos, value -> 1, maximumSize);
+    }
+
+    // The frequency sketch is sized for expectedEntries, since a weight says nothing about how
+    // many entries fit: too large a sketch saturates its counters before it ages them
+    public TinyLfuCache(long maximumWeight, long expireAfterAccessNanos, ToLongFunction<? super V> weigher,
+                        long expectedEntries) {
+        this.weigher = weigher;
+        this.maximumSize = Math.max(1, maximumWeight);
+        this.windowMaximum = Math.max(1, this.maximumSize / 100);
+        this.protectedMaximum = (long) ((this.maximumSize - windowMaximum) * 0.8);
+        this.expireAfterAccessNanos = expireAfterAccessNanos;
+
+        this.data = new ConcurrentHashMap<>();
+        this.policyLock = new ReentrantLock();
+        this.sketch = new FrequencySketch(Math.max(1, Math.min(expectedEntries, 1 << 20)));
+        this.window = new AccessOrderDeque<>();
+        this.probation = new AccessOrderDeque<>();
+        this.protectedSegment = new AccessOrderDeque<>();
+
+        this.readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        this.readBufferWrites = new AtomicLong();
+
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    public V get(K key) {
+        return get(key, null);
+    }
+
+    // Entries rejected by isValid are removed and counted as misses
+    public V get(K key, Predicate<? super V> isValid) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+
+        long now = System.nanoTime();
+        if (isExpired(node, now) || (isValid != null && !isValid.test(node.value))) {
+            misses.increment();
+            remove(key, node);
+            return null;
+        }
+
+        node.accessTime = now;
+        hits.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        long weight = Math.max(0, weigher.applyAsLong(value));
+        if (weight > maximumSize) {
+            // Could never fit; admitting it would just flush everything else
+            invalidate(key);
+            return;
+        }
+
+        Node<K, V> node = new Node<>(key, value, weight, System.nanoTime());
+        Node<K, V> prior = data.put(key, node);
+
+        policyLock.lock();
+        try {
+            drainReadBuffer();
+            if (prior != null) {
+                unlink(prior);
+            }
+            sketch.increment(key);
+            // A racing put or remove may already have replaced this node
+            if (data.get(key) == node) {
+                window.addLast(node);
+                node.segment = Node.WINDOW;
+            }
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public V invalidate(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        policyLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            policyLock.unlock();
+        }
+        return node.value;
+    }
+
+    public void clear() {
+        policyLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            while (readBufferReads < readBufferWrites.get()) {
+                readBuffer.set((int) (readBufferReads & READ_BUFFER_MASK), null);
+                readBufferReads++;
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public long weightedSize() {
+        policyLock.lock();
+        try {
+            return totalSize();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public CacheMetrics getMetrics() {
+        CacheMetrics metrics = new CacheMetrics();
+        metrics.setHits(hits.sum());
+        metrics.setMisses(misses.sum());
+        metrics.setEvictions(evictions.sum());
+        metrics.setSize(data.size());
+        metrics.setWeightedSize(weightedSize());
+        return metrics;
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterAccessNanos > 0 && now - node.accessTime > expireAfterAccessNanos;
+    }
+
+    private void remove(K key, Node<K, V> node) {
+        if (data.remove(key, node)) {
+            policyLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        long writes = readBufferWrites.get();
+        long pending = writes - readBufferReads;
+        boolean recorded = pending < READ_BUFFER_SIZE
+                && readBufferWrites.compareAndSet(writes, writes + 1);
+        if (recorded) {
+            readBuffer.lazySet((int) (writes & READ_BUFFER_MASK), node);
+        }
+
+        // A full or contended buffer just drops the access; the policy is approximate by design
+        if ((!recorded || pending + 1 >= DRAIN_THRESHOLD) && policyLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        long reads = readBufferReads;
+        long writes = readBufferWrites.get();
+        for (; reads < writes; reads++) {
+            int index = (int) (reads & READ_BUFFER_MASK);
+            Node<K, V> node = readBuffer.get(index);
+            if (node == null) {
+                break; // slot claimed but not yet published
+            }
+            readBuffer.lazySet(index, null);
+            onAccess(node);
+        }
+        readBufferReads = reads;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key);
+        switch (node.segment) {
+            case Node.WINDOW -> window.moveToBack(node);
+            case Node.PROBATION -> {
+                probation.remove(node);
+                protectedSegment.addLast(node);
+                node.segment = Node.PROTECTED;
+                demoteProtected();
+            }
+            case Node.PROTECTED -> protectedSegment.moveToBack(node);
+            default -> {
+                // Already evicted or replaced
+            }
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedSegment.weight() > protectedMaximum) {
+            Node<K, V> demoted = protectedSegment.pollFirst();
+            probation.addLast(demoted);
+            demoted.segment = Node.PROBATION;
+        }
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        expire(window, now);
+        expire(probation, now);
+        expire(protectedSegment, now);
+
+        // Entries leaving the window become admission candidates at the back of probation
+        int candidates = 0;
+        while (window.weight() > windowMaximum) {
+            Node<K, V> node = window.pollFirst();
+            probation.addLast(node);
+            node.segment = Node.PROBATION;
+            candidates++;
+        }
+
+        while (totalSize() > maximumSize) {
+            Node<K, V> victim = probation.peekFirst();
+            Node<K, V> candidate = candidates > 0 ? probation.peekLast() : null;
+            if (victim == null) {
+                victim = protectedSegment.peekFirst() != null ? protectedSegment.peekFirst() : window.peekFirst();
+            } else if (candidate != null && candidate != victim) {
+                candidates--;
+                // TinyLFU admission: the newcomer only stays if it is more popular than the victim
+                if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                    victim = candidate;
+                }
+            }
+            evictNode(victim);
+        }
+    }
+
+    private void expire(AccessOrderDeque<K, V> deque, long now) {
+        Node<K, V> node;
+        while ((node = deque.peekFirst()) != null && isExpired(node, now)) {
+            deque.remove(node);
+            node.segment = Node.REMOVED;
+            data.remove(node.key, node);
+        }
+    }
+
+    private void evictNode(Node<K, V> node) {
+        unlink(node);
+        if (data.remove(node.key, node)) {
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.segment) {
+            case Node.WINDOW -> window.remove(node);
+            case Node.PROBATION -> probation.remove(node);
+            case Node.PROTECTED -> protectedSegment.remove(node);
+            default -> {
+                return;
+            }
+        }
+        node.segment = Node.REMOVED;
+    }
+
+    private long totalSize() {
+        return window.weight() + probation.weight() + protectedSegment.weight();
+    }
+
+    static final class Node<K, V> {
+        static final int REMOVED = 0;
+        static final int WINDOW = 1;
+        static final int PROBATION = 2;
+        static final int PROTECTED = 3;
+
+        final K key;
+        final V value;
+        final long weight;
+        volatile long accessTime;
+        // Guarded by the policy lock
+        int segment;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, long weight, long accessTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.accessTime = accessTime;
+        }
+    }
+
+    // Intrusive doubly linked list ordered from least to most recently used
+    static final class AccessOrderDeque<K, V> {
+        private Node<K, V> first;
+        private Node<K, V> last;
+        private long size;
+        private long weight;
+
+        long size() {
+            return size;
+        }
+
+        long weight() {
+            return weight;
+        }
+
+        Node<K, V> peekFirst() {
+            return first;
+        }
+
+        Node<K, V> peekLast() {
+            return last;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+            weight += node.weight;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+            weight -= node.weight;
+        }
+
+        void clear() {
+            Node<K, V> node = first;
+            while (node != null) {
+                Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.segment = Node.REMOVED;
+                node = next;
+            }
+            first = null;
+            last = null;
+            size = 0;
+            weight = 0;
+        }
+    }
+}
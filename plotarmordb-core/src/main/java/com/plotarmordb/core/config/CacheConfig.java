@@ -1,11 +1,36 @@
 package com.plotarmordb.core.config;
 
 public class CacheConfig {
-    private int maxSize = 1000;
+    private int maxSize = 1000; // only used when maxBytes is 0
+    private long maxBytes = 64L * 1024 * 1024; // estimated heap held by cached results
+    private long ttlSeconds = 3600; // expire entries not read for this long; 0 disables
+    private long embeddingMaxBytes = 8L * 1024 * 1024; // text query embeddings; 0 disables
+    // Approximate cache that serves near-duplicate queries from a prior result
+    private boolean semanticEnabled = false;
+    private double semanticThreshold = 0.95; // minimum cosine similarity to the cached query
+    private long semanticMaxBytes = 16L * 1024 * 1024;
 
     public int getMaxSize() { return maxSize; }
     public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
 
+    public long getMaxBytes() { return maxBytes; }
+    public void setMaxBytes(long maxBytes) { this.maxBytes = maxBytes; }
+
+    public long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+
+    public long getEmbeddingMaxBytes() { return embeddingMaxBytes; }
+    public void setEmbeddingMaxBytes(long embeddingMaxBytes) { this.embeddingMaxBytes = embeddingMaxBytes; }
+
+    public boolean isSemanticEnabled() { return semanticEnabled; }
+    public void setSemanticEnabled(boolean semanticEnabled) { this.semanticEnabled = semanticEnabled; }
+
+    public double getSemanticThreshold() { return semanticThreshold; }
+    public void setSemanticThreshold(double semanticThreshold) { this.semanticThreshold = semanticThreshold; }
+
+    public long getSemanticMaxBytes() { return semanticMaxBytes; }
+    public void setSemanticMaxBytes(long semanticMaxBytes) { this.semanticMaxBytes = semanticMaxBytes; }
+
     public static Builder builder() { return new Builder(); }
 
     public static class Builder {
@@ -16,8 +41,38 @@ public class CacheConfig {
             return this;
         }
 
+        public Builder maxBytes(long maxBytes) {
+            config.setMaxBytes(maxBytes);
+            return this;
+        }
+
+        public Builder ttlSeconds(long ttlSeconds) {
+            config.setTtlSeconds(ttlSeconds);
+            return this;
+        }
+
+        public Builder embeddingMaxBytes(long embeddingMaxBytes) {
+            config.setEmbeddingMaxBytes(embeddingMaxBytes);
+            return this;
+        }
+
+        public Builder semanticEnabled(boolean semanticEnabled) {
+            config.setSemanticEnabled(semanticEnabled);
+            return this;
+        }
+
+        public Builder semanticThreshold(double semanticThreshold) {
+            config.setSemanticThreshold(semanticThreshold);
+            return this;
+        }
+
+        public Builder semanticMaxBytes(long semanticMaxBytes) {
+            config.setSemanticMaxBytes(semanticMaxBytes);
+            return this;
+        }
+
         public CacheConfig build() {
             return config;
         }
     }
-}
\ No newline at end of file
+}
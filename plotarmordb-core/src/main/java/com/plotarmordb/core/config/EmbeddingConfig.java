@@ -1,11 +1,24 @@
 package com.plotarmordb.core.config;
 
 public class EmbeddingConfig {
-    private int vocabularySize = 10000;
+    public enum Mode {
+        VOCABULARY, // terms get indices from a shared vocabulary in arrival order
+        HASHING     // terms are hashed straight into the dimension; no shared state
+    }
+
+    private int vocabularySize = 10000; // also the embedding dimension in HASHING mode
+    private Mode mode = Mode.VOCABULARY;
+    private int hashSeed = 0;
 
     public int getVocabularySize() { return vocabularySize; }
     public void setVocabularySize(int size) { this.vocabularySize = size; }
 
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public int getHashSeed() { return hashSeed; }
+    public void setHashSeed(int hashSeed) { this.hashSeed = hashSeed; }
+
     public static Builder builder() { return new Builder(); }
 
     public static class Builder {
@@ -16,6 +29,16 @@ public class EmbeddingConfig {
             return this;
         }
 
+        public Builder mode(Mode mode) {
+            config.setMode(mode);
+            return this;
+        }
+
+        public Builder hashSeed(int hashSeed) {
+            config.setHashSeed(hashSeed);
+            return this;
+        }
+
         public EmbeddingConfig build() {
             return config;
         }
@@ -10,24 +10,28 @@ public class PlotArmorConfig {
     private final CacheConfig cache;
     private final EmbeddingConfig embedding;
     private final SearchConfig search;
+    private final ReplicationConfig replication;
 
     private PlotArmorConfig(Builder builder) {
         this.db = builder.db;
         this.cache = builder.cache;
         this.embedding = builder.embedding;
         this.search = builder.search;
+        this.replication = builder.replication;
     }
 
     public DbConfig getDb() { return db; }
     public CacheConfig getCache() { return cache; }
     public EmbeddingConfig getEmbedding() { return embedding; }
     public SearchConfig getSearch() { return search; }
+    public ReplicationConfig getReplication() { return replication; }
 
     public static class Builder {
         private DbConfig db = new DbConfig();
         private CacheConfig cache = new CacheConfig();
         private EmbeddingConfig embedding = new EmbeddingConfig();
         private SearchConfig search = new SearchConfig();
+        private ReplicationConfig replication = new ReplicationConfig();
 
         public Builder db(DbConfig db) {
             this.db = db;
@@ -49,6 +53,11 @@ public class PlotArmorConfig {
             return this;
         }
 
+        public Builder replication(ReplicationConfig replication) {
+            this.replication = replication;
+            return this;
+        }
+
         public Builder loadFromProperties(Path propertiesPath) throws IOException {
             Properties props = new Properties();
             try (FileInputStream fis = new FileInputStream(propertiesPath.toFile())) {
@@ -66,6 +75,45 @@ public class PlotArmorConfig {
             } catch (NumberFormatException e) {
                 // Keep default if parsing fails
             }
+            try {
+                cache.setMaxBytes(Long.parseLong(
+                        props.getProperty("plotarmor.cache.maxBytes",
+                                String.valueOf(cache.getMaxBytes()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                cache.setTtlSeconds(Long.parseLong(
+                        props.getProperty("plotarmor.cache.ttlSeconds",
+                                String.valueOf(cache.getTtlSeconds()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+
+            try {
+                cache.setEmbeddingMaxBytes(Long.parseLong(
+                        props.getProperty("plotarmor.cache.embeddingMaxBytes",
+                                String.valueOf(cache.getEmbeddingMaxBytes()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            cache.setSemanticEnabled(Boolean.parseBoolean(
+                    props.getProperty("plotarmor.cache.semanticEnabled",
+                            String.valueOf(cache.isSemanticEnabled()))));
+            try {
+                cache.setSemanticThreshold(Double.parseDouble(
+                        props.getProperty("plotarmor.cache.semanticThreshold",
+                                String.valueOf(cache.getSemanticThreshold()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                cache.setSemanticMaxBytes(Long.parseLong(
+                        props.getProperty("plotarmor.cache.semanticMaxBytes",
+                                String.valueOf(cache.getSemanticMaxBytes()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
 
             // Load embedding config
             try {
@@ -75,6 +123,20 @@ public class PlotArmorConfig {
             } catch (NumberFormatException e) {
                 // Keep default if parsing fails
             }
+            try {
+                embedding.setMode(EmbeddingConfig.Mode.valueOf(
+                        props.getProperty("plotarmor.embedding.mode",
+                                embedding.getMode().name()).trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                embedding.setHashSeed(Integer.parseInt(
+                        props.getProperty("plotarmor.embedding.hashSeed",
+                                String.valueOf(embedding.getHashSeed()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
 
             // Load search config
             try {
@@ -84,6 +146,92 @@ public class PlotArmorConfig {
             } catch (NumberFormatException e) {
                 // Keep default if parsing fails
             }
+            try {
+                search.setTimeoutMillis(Long.parseLong(
+                        props.getProperty("plotarmor.search.timeoutMillis",
+                                String.valueOf(search.getTimeoutMillis()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            search.setAdaptiveBatchSize(Boolean.parseBoolean(
+                    props.getProperty("plotarmor.search.adaptiveBatchSize",
+                            String.valueOf(search.isAdaptiveBatchSize()))));
+            try {
+                search.setTargetBatchMillis(Double.parseDouble(
+                        props.getProperty("plotarmor.search.targetBatchMillis",
+                                String.valueOf(search.getTargetBatchMillis()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                search.setMaxConcurrentSearches(Integer.parseInt(
+                        props.getProperty("plotarmor.search.maxConcurrentSearches",
+                                String.valueOf(search.getMaxConcurrentSearches()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                search.setMaxQueuedSearches(Integer.parseInt(
+                        props.getProperty("plotarmor.search.maxQueuedSearches",
+                                String.valueOf(search.getMaxQueuedSearches()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                search.setQueueTimeoutMillis(Long.parseLong(
+                        props.getProperty("plotarmor.search.queueTimeoutMillis",
+                                String.valueOf(search.getQueueTimeoutMillis()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+
+            // Load replication config
+            try {
+                replication.setRole(ReplicationConfig.Role.valueOf(
+                        props.getProperty("plotarmor.replication.role",
+                                replication.getRole().name()).trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                // Keep default if parsing fails
+            }
+            replication.setLeaderHost(props.getProperty("plotarmor.replication.leaderHost",
+                    replication.getLeaderHost()));
+            replication.setStateFile(props.getProperty("plotarmor.replication.stateFile",
+                    replication.getStateFile()));
+            try {
+                replication.setListenPort(Integer.parseInt(
+                        props.getProperty("plotarmor.replication.listenPort",
+                                String.valueOf(replication.getListenPort()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                replication.setLeaderPort(Integer.parseInt(
+                        props.getProperty("plotarmor.replication.leaderPort",
+                                String.valueOf(replication.getLeaderPort()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                replication.setPollIntervalMillis(Long.parseLong(
+                        props.getProperty("plotarmor.replication.pollIntervalMillis",
+                                String.valueOf(replication.getPollIntervalMillis()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                replication.setReconnectDelayMillis(Long.parseLong(
+                        props.getProperty("plotarmor.replication.reconnectDelayMillis",
+                                String.valueOf(replication.getReconnectDelayMillis()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
+            try {
+                replication.setWalTtlSeconds(Long.parseLong(
+                        props.getProperty("plotarmor.replication.walTtlSeconds",
+                                String.valueOf(replication.getWalTtlSeconds()))));
+            } catch (NumberFormatException e) {
+                // Keep default if parsing fails
+            }
 
             return this;
         }
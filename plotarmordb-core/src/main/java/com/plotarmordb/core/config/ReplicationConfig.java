@@ -0,0 +1,88 @@
+package com.plotarmordb.core.config;
+
+public class ReplicationConfig {
+    public enum Role { NONE, LEADER, FOLLOWER }
+
+    private Role role = Role.NONE;
+    private int listenPort = 7070;
+    private String leaderHost = "localhost";
+    private int leaderPort = 7070;
+    private long pollIntervalMillis = 100;
+    private long reconnectDelayMillis = 1000;
+    private String stateFile;
+    private long walTtlSeconds = 3600; // archived WAL a leader keeps for followers that fall behind
+
+    public Role getRole() { return role; }
+    public void setRole(Role role) { this.role = role; }
+
+    public int getListenPort() { return listenPort; }
+    public void setListenPort(int port) { this.listenPort = port; }
+
+    public String getLeaderHost() { return leaderHost; }
+    public void setLeaderHost(String host) { this.leaderHost = host; }
+
+    public int getLeaderPort() { return leaderPort; }
+    public void setLeaderPort(int port) { this.leaderPort = port; }
+
+    public long getPollIntervalMillis() { return pollIntervalMillis; }
+    public void setPollIntervalMillis(long millis) { this.pollIntervalMillis = millis; }
+
+    public long getReconnectDelayMillis() { return reconnectDelayMillis; }
+    public void setReconnectDelayMillis(long millis) { this.reconnectDelayMillis = millis; }
+
+    public String getStateFile() { return stateFile; }
+    public void setStateFile(String stateFile) { this.stateFile = stateFile; }
+
+    public long getWalTtlSeconds() { return walTtlSeconds; }
+    public void setWalTtlSeconds(long seconds) { this.walTtlSeconds = seconds; }
+
+    public static Builder builder() { return new Builder(); }
+
+    public static class Builder {
+        private final ReplicationConfig config = new ReplicationConfig();
+
+        public Builder role(Role role) {
+            config.setRole(role);
+            return this;
+        }
+
+        public Builder listenPort(int port) {
+            config.setListenPort(port);
+            return this;
+        }
+
+        public Builder leaderHost(String host) {
+            config.setLeaderHost(host);
+            return this;
+        }
+
+        public Builder leaderPort(int port) {
+            config.setLeaderPort(port);
+            return this;
+        }
+
+        public Builder pollIntervalMillis(long millis) {
+            config.setPollIntervalMillis(millis);
+            return this;
+        }
+
+        public Builder reconnectDelayMillis(long millis) {
+            config.setReconnectDelayMillis(millis);
+            return this;
+        }
+
+        public Builder stateFile(String stateFile) {
+            config.setStateFile(stateFile);
+            return this;
+        }
+
+        public Builder walTtlSeconds(long seconds) {
+            config.setWalTtlSeconds(seconds);
+            return this;
+        }
+
+        public ReplicationConfig build() {
+            return config;
+        }
+    }
+}
@@ -2,10 +2,39 @@ package com.plotarmordb.core.config;
 
 public class SearchConfig {
     private int batchSize = 1000;
+    // Searches that run past this return what they have scored so far; 0 disables the deadline
+    private long timeoutMillis = 0;
+    // Measures scan speed and sizes chunks to take targetBatchMillis each; batchSize then no
+    // longer caps the chunk size
+    private boolean adaptiveBatchSize = false;
+    private double targetBatchMillis = 2.0;
+    // Upper bound of the adaptive limit on scans running at once; 0 disables admission control
+    private int maxConcurrentSearches = 0;
+    // Searches waiting for a slot beyond which new ones are rejected, and how long one may wait
+    private int maxQueuedSearches = 100;
+    private long queueTimeoutMillis = 1000;
 
     public int getBatchSize() { return batchSize; }
     public void setBatchSize(int size) { this.batchSize = size; }
 
+    public long getTimeoutMillis() { return timeoutMillis; }
+    public void setTimeoutMillis(long timeoutMillis) { this.timeoutMillis = timeoutMillis; }
+
+    public boolean isAdaptiveBatchSize() { return adaptiveBatchSize; }
+    public void setAdaptiveBatchSize(boolean adaptiveBatchSize) { this.adaptiveBatchSize = adaptiveBatchSize; }
+
+    public double getTargetBatchMillis() { return targetBatchMillis; }
+    public void setTargetBatchMillis(double targetBatchMillis) { this.targetBatchMillis = targetBatchMillis; }
+
+    public int getMaxConcurrentSearches() { return maxConcurrentSearches; }
+    public void setMaxConcurrentSearches(int maxConcurrentSearches) { this.maxConcurrentSearches = maxConcurrentSearches; }
+
+    public int getMaxQueuedSearches() { return maxQueuedSearches; }
+    public void setMaxQueuedSearches(int maxQueuedSearches) { this.maxQueuedSearches = maxQueuedSearches; }
+
+    public long getQueueTimeoutMillis() { return queueTimeoutMillis; }
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) { this.queueTimeoutMillis = queueTimeoutMillis; }
+
     public static Builder builder() { return new Builder(); }
 
     public static class Builder {
@@ -16,6 +45,36 @@ public class SearchConfig {
             return this;
         }
 
+        public Builder timeoutMillis(long timeoutMillis) {
+            config.setTimeoutMillis(timeoutMillis);
+            return this;
+        }
+
+        public Builder adaptiveBatchSize(boolean adaptiveBatchSize) {
+            config.setAdaptiveBatchSize(adaptiveBatchSize);
+            return this;
+        }
+
+        public Builder targetBatchMillis(double targetBatchMillis) {
+            config.setTargetBatchMillis(targetBatchMillis);
+            return this;
+        }
+
+        public Builder maxConcurrentSearches(int maxConcurrentSearches) {
+            config.setMaxConcurrentSearches(maxConcurrentSearches);
+            return this;
+        }
+
+        public Builder maxQueuedSearches(int maxQueuedSearches) {
+            config.setMaxQueuedSearches(maxQueuedSearches);
+            return this;
+        }
+
+        public Builder queueTimeoutMillis(long queueTimeoutMillis) {
+            config.setQueueTimeoutMillis(queueTimeoutMillis);
+            return this;
+        }
+
         public SearchConfig build() {
             return config;
         }
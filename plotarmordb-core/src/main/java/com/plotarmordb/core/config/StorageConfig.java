@@ -5,28 +5,87 @@ public class StorageConfig {
     private boolean compressionEnabled = true;
     private int writeBufferSize = 64 * 1024 * 1024; // 64MB
     private int maxBackgroundJobs = 4;
+    private String backupPath;
+    private long backupIntervalSeconds = 0; // 0 disables scheduled backups
+    private int maxBackups = 5;
+    private String secondaryPath; // set to open the data directory as a read-only replica
+    private long catchUpIntervalMillis = 1000;
+    private long walTtlSeconds = 0; // keep archived WAL around for replication followers
+    private long walSizeLimitMb = 0;
+    private boolean replicationFollower; // writes arrive only from a replication leader
+    private int shardCount = 1;
+    private long rowCacheMaxBytes = 64L * 1024 * 1024; // decoded vectors kept for point reads; 0 disables
 
     private StorageConfig(Builder builder) {
         this.dbPath = builder.dbPath;
         this.compressionEnabled = builder.compressionEnabled;
         this.writeBufferSize = builder.writeBufferSize;
         this.maxBackgroundJobs = builder.maxBackgroundJobs;
+        this.backupPath = builder.backupPath;
+        this.backupIntervalSeconds = builder.backupIntervalSeconds;
+        this.maxBackups = builder.maxBackups;
+        this.secondaryPath = builder.secondaryPath;
+        this.catchUpIntervalMillis = builder.catchUpIntervalMillis;
+        this.walTtlSeconds = builder.walTtlSeconds;
+        this.walSizeLimitMb = builder.walSizeLimitMb;
+        this.replicationFollower = builder.replicationFollower;
+        this.shardCount = builder.shardCount;
+        this.rowCacheMaxBytes = builder.rowCacheMaxBytes;
     }
 
     public String getDbPath() { return dbPath; }
     public boolean isCompressionEnabled() { return compressionEnabled; }
     public int getWriteBufferSize() { return writeBufferSize; }
     public int getMaxBackgroundJobs() { return maxBackgroundJobs; }
+    public String getBackupPath() { return backupPath; }
+    public long getBackupIntervalSeconds() { return backupIntervalSeconds; }
+    public int getMaxBackups() { return maxBackups; }
+    public String getSecondaryPath() { return secondaryPath; }
+    public long getCatchUpIntervalMillis() { return catchUpIntervalMillis; }
+    public boolean isSecondary() { return secondaryPath != null; }
+    public long getWalTtlSeconds() { return walTtlSeconds; }
+    public long getWalSizeLimitMb() { return walSizeLimitMb; }
+    public boolean isReplicationFollower() { return replicationFollower; }
+    public int getShardCount() { return shardCount; }
+    public long getRowCacheMaxBytes() { return rowCacheMaxBytes; }
 
     public static Builder builder() {
         return new Builder();
     }
 
+    public Builder toBuilder() {
+        return new Builder()
+                .dbPath(dbPath)
+                .compressionEnabled(compressionEnabled)
+                .writeBufferSize(writeBufferSize)
+                .maxBackgroundJobs(maxBackgroundJobs)
+                .backupPath(backupPath)
+                .backupIntervalSeconds(backupIntervalSeconds)
+                .maxBackups(maxBackups)
+                .secondaryPath(secondaryPath)
+                .catchUpIntervalMillis(catchUpIntervalMillis)
+                .walTtlSeconds(walTtlSeconds)
+                .walSizeLimitMb(walSizeLimitMb)
+                .replicationFollower(replicationFollower)
+                .shardCount(shardCount)
+                .rowCacheMaxBytes(rowCacheMaxBytes);
+    }
+
     public static class Builder {
         private String dbPath = "plotarmor-data";
         private boolean compressionEnabled = true;
         private int writeBufferSize = 64 * 1024 * 1024;
         private int maxBackgroundJobs = 4;
+        private String backupPath;
+        private long backupIntervalSeconds = 0;
+        private int maxBackups = 5;
+        private String secondaryPath;
+        private long catchUpIntervalMillis = 1000;
+        private long walTtlSeconds = 0;
+        private long walSizeLimitMb = 0;
+        private boolean replicationFollower;
+        private int shardCount = 1;
+        private long rowCacheMaxBytes = 64L * 1024 * 1024;
 
         public Builder dbPath(String path) {
             this.dbPath = path;
@@ -48,6 +107,56 @@ public class StorageConfig {
             return this;
         }
 
+        public Builder backupPath(String path) {
+            this.backupPath = path;
+            return this;
+        }
+
+        public Builder backupIntervalSeconds(long seconds) {
+            this.backupIntervalSeconds = seconds;
+            return this;
+        }
+
+        public Builder maxBackups(int maxBackups) {
+            this.maxBackups = maxBackups;
+            return this;
+        }
+
+        public Builder secondaryPath(String path) {
+            this.secondaryPath = path;
+            return this;
+        }
+
+        public Builder catchUpIntervalMillis(long millis) {
+            this.catchUpIntervalMillis = millis;
+            return this;
+        }
+
+        public Builder walTtlSeconds(long seconds) {
+            this.walTtlSeconds = seconds;
+            return this;
+        }
+
+        public Builder walSizeLimitMb(long megabytes) {
+            this.walSizeLimitMb = megabytes;
+            return this;
+        }
+
+        public Builder replicationFollower(boolean follower) {
+            this.replicationFollower = follower;
+            return this;
+        }
+
+        public Builder shardCount(int count) {
+            this.shardCount = count;
+            return this;
+        }
+
+        public Builder rowCacheMaxBytes(long bytes) {
+            this.rowCacheMaxBytes = bytes;
+            return this;
+        }
+
         public StorageConfig build() {
             return new StorageConfig(this);
         }
@@ -0,0 +1,25 @@
+package com.plotarmordb.core.embedding;
+
+import com.plotarmordb.core.model.Vector;
+
+import java.util.List;
+import java.util.Map;
+
+// Vectors for texts about to be stored, plus the vocabulary indices reserved for them
+public final class EmbeddedDocuments {
+    private final List<Vector> vectors;
+    private final Map<String, Integer> newTerms;
+
+    EmbeddedDocuments(List<Vector> vectors, Map<String, Integer> newTerms) {
+        this.vectors = vectors;
+        this.newTerms = newTerms;
+    }
+
+    public List<Vector> getVectors() {
+        return vectors;
+    }
+
+    public Map<String, Integer> getNewTerms() {
+        return newTerms;
+    }
+}
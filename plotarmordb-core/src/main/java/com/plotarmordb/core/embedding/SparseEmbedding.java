@@ -0,0 +1,82 @@
+package com.plotarmordb.core.embedding;
+
+import java.util.Arrays;
+
+// Non-zero entries of an embedding, sorted by index
+public final class SparseEmbedding {
+    private final int dimension;
+    private final int[] indices;
+    private final float[] values;
+
+    SparseEmbedding(int dimension, int[] indices, float[] values) {
+        this.dimension = dimension;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    // Sorts the first size entries by index, sums entries sharing an index and scales the
+    // result to unit length, with the same float arithmetic as VectorMath.normalizeVector
+    static SparseEmbedding normalized(int dimension, int[] indices, float[] values, int size) {
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) indices[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] sortedIndices = new int[size];
+        float[] sortedValues = new float[size];
+        int merged = 0;
+        for (int i = 0; i < size; i++) {
+            int source = (int) order[i];
+            if (merged > 0 && sortedIndices[merged - 1] == indices[source]) {
+                sortedValues[merged - 1] += values[source];
+            } else {
+                sortedIndices[merged] = indices[source];
+                sortedValues[merged++] = values[source];
+            }
+        }
+
+        float sumSquares = 0.0f;
+        for (int i = 0; i < merged; i++) {
+            sumSquares += sortedValues[i] * sortedValues[i];
+        }
+        if (sumSquares > 0) {
+            float magnitude = (float) Math.sqrt(sumSquares);
+            for (int i = 0; i < merged; i++) {
+                sortedValues[i] = sortedValues[i] / magnitude;
+            }
+        }
+        return merged == size
+                ? new SparseEmbedding(dimension, sortedIndices, sortedValues)
+                : new SparseEmbedding(dimension, Arrays.copyOf(sortedIndices, merged),
+                Arrays.copyOf(sortedValues, merged));
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int size() {
+        return indices.length;
+    }
+
+    public int getIndex(int position) {
+        return indices[position];
+    }
+
+    public float getValue(int position) {
+        return values[position];
+    }
+
+    public float[] toDense() {
+        float[] dense = new float[dimension];
+        for (int i = 0; i < indices.length; i++) {
+            dense[indices[i]] = values[i];
+        }
+        return dense;
+    }
+
+    public long estimatedBytes() {
+        return 64 + 8L * indices.length;
+    }
+}
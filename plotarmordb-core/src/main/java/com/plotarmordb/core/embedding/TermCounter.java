@@ -0,0 +1,184 @@
+package com.plotarmordb.core.embedding;
+
+import java.util.Arrays;
+
+// Single-pass tokenizer and term counter with the same rules as the old regex version:
+// lowercase, drop everything except ASCII letters, digits and whitespace, split on whitespace.
+// Buffers are reused between calls, so one instance must stay on one thread.
+final class TermCounter {
+    private static final int INITIAL_CAPACITY = 256;
+    // Buffers grown past this by a huge document are released afterwards
+    private static final int RETAINED_CHARS = 1 << 16;
+
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int[] termStarts = new int[INITIAL_CAPACITY];
+    private int[] termLengths = new int[INITIAL_CAPACITY];
+    private int[] termHashes = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int[] termSlots = new int[INITIAL_CAPACITY];
+    // Open addressing over term numbers + 1; 0 marks an empty slot
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    private int length;
+    private int termCount;
+    private int tokenCount;
+
+    void count(CharSequence text) {
+        reset(text.length());
+
+        int tokenStart = 0;
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                chars[length++] = c;
+                hash = 31 * hash + c;
+            } else if (c == ' ' || (c >= '\t' && c <= '\r')) {
+                if (length > tokenStart) {
+                    endToken(tokenStart, hash);
+                }
+                tokenStart = length;
+                hash = 0;
+            }
+            // Anything else is dropped without ending the token, e.g. "don't" -> "dont"
+        }
+        if (length > tokenStart) {
+            endToken(tokenStart, hash);
+        }
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    int tokenCount() {
+        return tokenCount;
+    }
+
+    int count(int term) {
+        return counts[term];
+    }
+
+    String term(int term) {
+        return new String(chars, termStarts[term], termLengths[term]);
+    }
+
+    // MurmurHash3 x86_32 of the term's UTF-8 bytes (terms are ASCII, so one byte per char);
+    // equal to Guava's murmur3_32_fixed(seed).hashString(term, UTF_8) without creating the String
+    int murmurHash(int term, int seed) {
+        int start = termStarts[term];
+        int termLength = termLengths[term];
+        int h = seed;
+        int i = 0;
+        for (; i + 4 <= termLength; i += 4) {
+            int k = chars[start + i] | (chars[start + i + 1] << 8)
+                    | (chars[start + i + 2] << 16) | (chars[start + i + 3] << 24);
+            h ^= mixK(k);
+            h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+        }
+        int k = 0;
+        for (int shift = 0; i < termLength; i++, shift += 8) {
+            k |= chars[start + i] << shift;
+        }
+        if (k != 0) {
+            h ^= mixK(k);
+        }
+        h ^= termLength;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private static int mixK(int k) {
+        k *= 0xcc9e2d51;
+        k = Integer.rotateLeft(k, 15);
+        return k * 0x1b873593;
+    }
+
+    private void endToken(int start, int hash) {
+        tokenCount++;
+        int tokenLength = length - start;
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                addTerm(slot, start, tokenLength, hash);
+                return;
+            }
+            int term = entry - 1;
+            if (termHashes[term] == hash && termLengths[term] == tokenLength
+                    && Arrays.equals(chars, termStarts[term], termStarts[term] + tokenLength,
+                    chars, start, length)) {
+                counts[term]++;
+                // The chars of a repeated term are not needed again
+                length = start;
+                return;
+            }
+        }
+    }
+
+    private void addTerm(int slot, int start, int tokenLength, int hash) {
+        if (termCount == counts.length) {
+            int capacity = counts.length * 2;
+            termStarts = Arrays.copyOf(termStarts, capacity);
+            termLengths = Arrays.copyOf(termLengths, capacity);
+            termHashes = Arrays.copyOf(termHashes, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            termSlots = Arrays.copyOf(termSlots, capacity);
+        }
+        termStarts[termCount] = start;
+        termLengths[termCount] = tokenLength;
+        termHashes[termCount] = hash;
+        counts[termCount] = 1;
+        termSlots[termCount] = slot;
+        table[slot] = ++termCount;
+
+        if (termCount * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        int mask = capacity - 1;
+        for (int term = 0; term < termCount; term++) {
+            int slot = spread(termHashes[term]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = term + 1;
+            termSlots[term] = slot;
+        }
+    }
+
+    private void reset(int textLength) {
+        if (chars.length > RETAINED_CHARS && textLength <= RETAINED_CHARS) {
+            chars = new char[INITIAL_CAPACITY];
+        }
+        if (chars.length < textLength) {
+            chars = new char[Math.max(textLength, chars.length * 2)];
+        }
+        if (counts.length > RETAINED_CHARS) {
+            termStarts = new int[INITIAL_CAPACITY];
+            termLengths = new int[INITIAL_CAPACITY];
+            termHashes = new int[INITIAL_CAPACITY];
+            counts = new int[INITIAL_CAPACITY];
+            termSlots = new int[INITIAL_CAPACITY];
+            table = new int[INITIAL_CAPACITY * 2];
+        } else {
+            // Only the slots used last time need clearing
+            for (int term = 0; term < termCount; term++) {
+                table[termSlots[term]] = 0;
+            }
+        }
+        length = 0;
+        termCount = 0;
+        tokenCount = 0;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x45d9f3b;
+    }
+}
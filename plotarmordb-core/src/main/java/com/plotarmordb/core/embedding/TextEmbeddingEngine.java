@@ -1,84 +1,228 @@
 package com.plotarmordb.core.embedding;
 
 import com.plotarmordb.core.config.EmbeddingConfig;
-import com.plotarmordb.core.search.VectorMath;
+import com.plotarmordb.core.model.TextRequest;
+import com.plotarmordb.core.model.Vector;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.function.ToIntFunction;
 
 public class TextEmbeddingEngine {
+    // With virtual threads this is per task rather than per carrier, which is still allocation-light
+    private static final ThreadLocal<TermCounter> TERM_COUNTERS = ThreadLocal.withInitial(TermCounter::new);
+    private static final int MAX_UNKNOWN_TERMS = 100_000;
+
     private final Map<String, Integer> vocabulary;
     private final List<String> vocabularyList;
     private final int maxVocabularySize;
     private final Object vocabularyLock = new Object();
+    private final boolean hashing;
+    private final int hashSeed;
+    private final VocabularyStore vocabularyStore; // null keeps the vocabulary in memory only
+    // Query terms the store had no index for, with the store generation they were looked up at
+    private final Map<String, Long> unknownTerms = new ConcurrentHashMap<>();
 
     public TextEmbeddingEngine(EmbeddingConfig config) {
+        this(config, null);
+    }
+
+    public TextEmbeddingEngine(EmbeddingConfig config, VocabularyStore vocabularyStore) {
         this.maxVocabularySize = config.getVocabularySize();
+        this.hashing = config.getMode() == EmbeddingConfig.Mode.HASHING;
+        this.hashSeed = config.getHashSeed();
+        this.vocabularyStore = hashing ? null : vocabularyStore;
         this.vocabulary = new ConcurrentHashMap<>();
         this.vocabularyList = Collections.synchronizedList(new ArrayList<>());
+        reloadVocabulary();
+    }
+
+    // Picks up assignments made elsewhere, e.g. after the storage was restored
+    public void reloadVocabulary() {
+        if (vocabularyStore != null) {
+            Map<String, Integer> stored = vocabularyStore.load();
+            vocabulary.keySet().retainAll(stored.keySet());
+            vocabulary.putAll(stored);
+            unknownTerms.clear();
+        }
+    }
+
+    // Changes whenever a term gains an index, so embeddings made before can be recomputed
+    public long getVocabularyGeneration() {
+        return vocabularyStore != null ? vocabularyStore.generation() : vocabulary.size();
     }
 
     public float[] generateEmbedding(String text) {
-        // Preprocess and tokenize text
-        List<String> tokens = tokenize(text.toLowerCase());
+        return generateSparseEmbedding(text).toDense();
+    }
 
-        // Calculate term frequencies
-        Map<String, Integer> termFrequencies = calculateTermFrequencies(tokens);
+    // Embeds every text in parallel across cores; results keep the input order
+    public List<float[]> generateEmbeddings(List<String> texts) {
+        return texts.parallelStream()
+                .map(this::generateEmbedding)
+                .toList();
+    }
 
-        // Generate TF-IDF vector
-        float[] embedding = new float[maxVocabularySize];
-        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
-            String term = entry.getKey();
-            int frequency = entry.getValue();
+    public List<SparseEmbedding> generateSparseEmbeddings(List<String> texts) {
+        return texts.parallelStream()
+                .map(this::generateSparseEmbedding)
+                .toList();
+    }
 
-            int index = getOrCreateTermIndex(term);
-            if (index < maxVocabularySize) {
-                embedding[index] = (float) frequency / tokens.size();
+    // Queries only look terms up: a term no stored document has gets no index
+    public SparseEmbedding generateSparseEmbedding(String text) {
+        // Tokenize and count terms in one pass over the text
+        TermCounter counter = TERM_COUNTERS.get();
+        counter.count(text);
+        if (hashing) {
+            return hashedEmbedding(counter);
+        }
+        return termFrequencies(new TermCounts(counter), this::lookupTermIndex);
+    }
+
+    // Embeds texts to be stored with VectorStorage.storeTextBatch. Terms without an index are
+    // assigned one for the whole batch at once; the result carries the new assignments so the
+    // write that stores these documents persists them too.
+    public EmbeddedDocuments embedDocuments(List<TextRequest> requests) {
+        List<SparseEmbedding> embeddings;
+        Map<String, Integer> newTerms = Map.of();
+        if (hashing) {
+            embeddings = requests.parallelStream()
+                    .map(request -> {
+                        TermCounter counter = TERM_COUNTERS.get();
+                        counter.count(request.getText());
+                        return hashedEmbedding(counter);
+                    })
+                    .toList();
+        } else {
+            List<TermCounts> counts = requests.parallelStream()
+                    .map(request -> {
+                        TermCounter counter = TERM_COUNTERS.get();
+                        counter.count(request.getText());
+                        return new TermCounts(counter);
+                    })
+                    .toList();
+            Set<String> unknown = new HashSet<>();
+            for (TermCounts documentCounts : counts) {
+                for (String term : documentCounts.terms) {
+                    if (!vocabulary.containsKey(term)) {
+                        unknown.add(term);
+                    }
+                }
             }
+            newTerms = assignTermIndices(unknown);
+            Map<String, Integer> assigned = newTerms;
+            embeddings = counts.parallelStream()
+                    .map(documentCounts -> termFrequencies(documentCounts, term -> {
+                        Integer index = vocabulary.getOrDefault(term, assigned.get(term));
+                        return index != null ? index : maxVocabularySize;
+                    }))
+                    .toList();
         }
 
-        // Normalize the embedding vector
-        VectorMath.normalizeVector(embedding);
-        return embedding;
+        List<Vector> vectors = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TextRequest request = requests.get(i);
+            String id = request.getId() != null ? request.getId() : UUID.randomUUID().toString();
+            vectors.add(new Vector(id, embeddings.get(i).toDense(), request.getMetadata()));
+        }
+        return new EmbeddedDocuments(vectors, newTerms);
     }
 
-    private List<String> tokenize(String text) {
-        return Arrays.stream(text.replaceAll("[^a-zA-Z0-9\\s]", "").split("\\s+"))
-                .filter(token -> !token.isEmpty())
-                .collect(Collectors.toList());
+    // Generate TF-IDF vector, only for the terms that occur
+    private SparseEmbedding termFrequencies(TermCounts counts, ToIntFunction<String> indexOf) {
+        int[] indices = new int[counts.terms.length];
+        float[] values = new float[counts.terms.length];
+        int size = 0;
+        for (int term = 0; term < counts.terms.length; term++) {
+            int index = indexOf.applyAsInt(counts.terms[term]);
+            if (index < maxVocabularySize) {
+                indices[size] = index;
+                values[size++] = (float) counts.counts[term] / counts.tokenCount;
+            }
+        }
+
+        return SparseEmbedding.normalized(maxVocabularySize, indices, values, size);
     }
 
-    private Map<String, Integer> calculateTermFrequencies(List<String> tokens) {
-        Map<String, Integer> frequencies = new HashMap<>();
-        for (String token : tokens) {
-            frequencies.merge(token, 1, Integer::sum);
+    // Feature hashing: the index and sign both come from one hash of the term, so the same
+    // text embeds identically on every node and after restarts, without any shared state.
+    // The sign keeps colliding terms from inflating each other on average.
+    private SparseEmbedding hashedEmbedding(TermCounter counter) {
+        int[] indices = new int[counter.termCount()];
+        float[] values = new float[counter.termCount()];
+        for (int term = 0; term < counter.termCount(); term++) {
+            int hash = counter.murmurHash(term, hashSeed);
+            float frequency = (float) counter.count(term) / counter.tokenCount();
+            indices[term] = (hash & Integer.MAX_VALUE) % maxVocabularySize;
+            values[term] = hash < 0 ? -frequency : frequency;
         }
-        return frequencies;
+        return SparseEmbedding.normalized(maxVocabularySize, indices, values, counter.termCount());
     }
 
-    private int getOrCreateTermIndex(String term) {
+    private int lookupTermIndex(String term) {
         Integer index = vocabulary.get(term);
         if (index != null) {
             return index;
         }
+        if (vocabularyStore == null) {
+            return maxVocabularySize;
+        }
 
-        synchronized (vocabularyLock) {
-            // Double-check after acquiring lock
-            index = vocabulary.get(term);
-            if (index != null) {
-                return index;
+        // A miss stays cached until the store assigns anything; the generation is read before
+        // the lookup, so a term stored meanwhile is never cached as unknown
+        long generation = vocabularyStore.generation();
+        Long missed = unknownTerms.get(term);
+        if (missed != null && missed == generation) {
+            return maxVocabularySize;
+        }
+        index = vocabularyStore.lookup(term);
+        if (index == null) {
+            if (unknownTerms.size() >= MAX_UNKNOWN_TERMS) {
+                unknownTerms.clear();
             }
+            unknownTerms.put(term, generation);
+            return maxVocabularySize;
+        }
+        vocabulary.put(term, index);
+        return index;
+    }
+
+    // Indices to persist with the documents; empty when the vocabulary only lives in memory
+    private Map<String, Integer> assignTermIndices(Set<String> terms) {
+        if (terms.isEmpty()) {
+            return Map.of();
+        }
+        if (vocabularyStore != null) {
+            return vocabularyStore.assign(terms, maxVocabularySize);
+        }
 
-            if (vocabularyList.size() < maxVocabularySize) {
-                index = vocabularyList.size();
-                vocabulary.put(term, index);
-                vocabularyList.add(term);
-                return index;
+        synchronized (vocabularyLock) {
+            for (String term : terms) {
+                if (!vocabulary.containsKey(term) && vocabularyList.size() < maxVocabularySize) {
+                    vocabulary.put(term, vocabularyList.size());
+                    vocabularyList.add(term);
+                }
             }
         }
+        return Map.of();
+    }
 
-        return maxVocabularySize; // Term not in vocabulary
+    // A copy of one text's counts, for when the thread's counter is needed again in between
+    private static final class TermCounts {
+        private final String[] terms;
+        private final int[] counts;
+        private final int tokenCount;
+
+        TermCounts(TermCounter counter) {
+            this.terms = new String[counter.termCount()];
+            this.counts = new int[counter.termCount()];
+            for (int term = 0; term < terms.length; term++) {
+                terms[term] = counter.term(term);
+                counts[term] = counter.count(term);
+            }
+            this.tokenCount = counter.tokenCount();
+        }
     }
 
     public Set<String> getVocabulary() {
@@ -0,0 +1,20 @@
+package com.plotarmordb.core.embedding;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Durable term -> index assignments shared by every engine embedding against the same data
+public interface VocabularyStore {
+    Map<String, Integer> load();
+
+    // The stored index, or null; never assigns one
+    Integer lookup(String term);
+
+    // Indices for the terms of documents about to be stored: stored ones as they are, new ones
+    // reserved below limit until the storeTextBatch carrying them persists them. Terms that
+    // cannot get an index, e.g. on a replica or with the vocabulary full, are left out.
+    Map<String, Integer> assign(Collection<String> terms, int limit);
+
+    // Changes whenever terms gain a stored index
+    long generation();
+}
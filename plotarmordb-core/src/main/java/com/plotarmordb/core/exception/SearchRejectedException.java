@@ -0,0 +1,11 @@
+package com.plotarmordb.core.exception;
+
+// Thrown instead of running a search when the engine is saturated; the caller should back off
+// and retry
+public class SearchRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SearchRejectedException(String message) {
+        super(message);
+    }
+}
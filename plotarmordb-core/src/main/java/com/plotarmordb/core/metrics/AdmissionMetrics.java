@@ -0,0 +1,35 @@
+package com.plotarmordb.core.metrics;
+
+public class AdmissionMetrics {
+    private int limit;
+    private int inFlight;
+    private int queued;
+    private long admitted;
+    private long rejected;
+    private long timedOut;
+
+    // Scans currently allowed to run at once, as adapted to their latency
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public int getInFlight() { return inFlight; }
+    public void setInFlight(int inFlight) { this.inFlight = inFlight; }
+
+    public int getQueued() { return queued; }
+    public void setQueued(int queued) { this.queued = queued; }
+
+    public long getAdmitted() { return admitted; }
+    public void setAdmitted(long admitted) { this.admitted = admitted; }
+
+    // Includes searches that timed out in the queue
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public long getTimedOut() { return timedOut; }
+    public void setTimedOut(long timedOut) { this.timedOut = timedOut; }
+
+    public double getRejectionRate() {
+        long total = admitted + rejected;
+        return total == 0 ? 0.0 : (double) rejected / total;
+    }
+}
@@ -5,6 +5,7 @@ public class CacheMetrics {
     private long misses;
     private long evictions;
     private int size;
+    private long weightedSize;
 
     public long getHits() { return hits; }
     public void setHits(long hits) { this.hits = hits; }
@@ -18,6 +19,10 @@ public class CacheMetrics {
     public int getSize() { return size; }
     public void setSize(int size) { this.size = size; }
 
+    // Estimated bytes for byte-bounded caches, otherwise the entry count
+    public long getWeightedSize() { return weightedSize; }
+    public void setWeightedSize(long weightedSize) { this.weightedSize = weightedSize; }
+
     public double getHitRate() {
         long total = hits + misses;
         return total == 0 ? 0.0 : (double) hits / total;
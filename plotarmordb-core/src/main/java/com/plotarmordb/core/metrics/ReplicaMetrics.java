@@ -0,0 +1,20 @@
+package com.plotarmordb.core.metrics;
+
+public class ReplicaMetrics {
+    private long sequenceNumber;
+    private long lastCatchUpTime;
+    private long lagMillis;
+    private long catchUpFailures;
+
+    public long getSequenceNumber() { return sequenceNumber; }
+    public void setSequenceNumber(long sequenceNumber) { this.sequenceNumber = sequenceNumber; }
+
+    public long getLastCatchUpTime() { return lastCatchUpTime; }
+    public void setLastCatchUpTime(long lastCatchUpTime) { this.lastCatchUpTime = lastCatchUpTime; }
+
+    public long getLagMillis() { return lagMillis; }
+    public void setLagMillis(long lagMillis) { this.lagMillis = lagMillis; }
+
+    public long getCatchUpFailures() { return catchUpFailures; }
+    public void setCatchUpFailures(long catchUpFailures) { this.catchUpFailures = catchUpFailures; }
+}
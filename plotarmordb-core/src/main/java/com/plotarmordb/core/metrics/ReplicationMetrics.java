@@ -0,0 +1,32 @@
+package com.plotarmordb.core.metrics;
+
+public class ReplicationMetrics {
+    private boolean connected;
+    private long appliedSequence;
+    private long leaderSequence;
+    private long lastAppliedTime;
+    private long batchesApplied;
+    private long snapshotsLoaded;
+
+    public boolean isConnected() { return connected; }
+    public void setConnected(boolean connected) { this.connected = connected; }
+
+    public long getAppliedSequence() { return appliedSequence; }
+    public void setAppliedSequence(long appliedSequence) { this.appliedSequence = appliedSequence; }
+
+    public long getLeaderSequence() { return leaderSequence; }
+    public void setLeaderSequence(long leaderSequence) { this.leaderSequence = leaderSequence; }
+
+    public long getLastAppliedTime() { return lastAppliedTime; }
+    public void setLastAppliedTime(long lastAppliedTime) { this.lastAppliedTime = lastAppliedTime; }
+
+    public long getBatchesApplied() { return batchesApplied; }
+    public void setBatchesApplied(long batchesApplied) { this.batchesApplied = batchesApplied; }
+
+    public long getSnapshotsLoaded() { return snapshotsLoaded; }
+    public void setSnapshotsLoaded(long snapshotsLoaded) { this.snapshotsLoaded = snapshotsLoaded; }
+
+    public long getSequenceLag() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+}
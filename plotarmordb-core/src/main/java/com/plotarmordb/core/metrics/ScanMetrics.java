@@ -0,0 +1,34 @@
+package com.plotarmordb.core.metrics;
+
+public class ScanMetrics {
+    private boolean adaptive;
+    private int chunkSize;
+    private int dimension;
+    private double targetBatchMillis;
+    private double averageBatchMillis;
+    private double nanosPerVector;
+    private long batches;
+
+    public boolean isAdaptive() { return adaptive; }
+    public void setAdaptive(boolean adaptive) { this.adaptive = adaptive; }
+
+    // Vectors per chunk chosen for the latest scan, and the dimension it was chosen for
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+
+    public int getDimension() { return dimension; }
+    public void setDimension(int dimension) { this.dimension = dimension; }
+
+    public double getTargetBatchMillis() { return targetBatchMillis; }
+    public void setTargetBatchMillis(double targetBatchMillis) { this.targetBatchMillis = targetBatchMillis; }
+
+    // Moving averages over recently scored chunks
+    public double getAverageBatchMillis() { return averageBatchMillis; }
+    public void setAverageBatchMillis(double averageBatchMillis) { this.averageBatchMillis = averageBatchMillis; }
+
+    public double getNanosPerVector() { return nanosPerVector; }
+    public void setNanosPerVector(double nanosPerVector) { this.nanosPerVector = nanosPerVector; }
+
+    public long getBatches() { return batches; }
+    public void setBatches(long batches) { this.batches = batches; }
+}
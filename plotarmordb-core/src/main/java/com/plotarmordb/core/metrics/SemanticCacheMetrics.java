@@ -0,0 +1,43 @@
+package com.plotarmordb.core.metrics;
+
+public class SemanticCacheMetrics {
+    private long hits;
+    private long misses;
+    private long candidatesExamined;
+    private double averageHitSimilarity;
+    private double minHitSimilarity;
+    private long verifiedHits;
+    private double averageRecall;
+    private int size;
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+
+    public long getCandidatesExamined() { return candidatesExamined; }
+    public void setCandidatesExamined(long candidatesExamined) { this.candidatesExamined = candidatesExamined; }
+
+    public double getAverageHitSimilarity() { return averageHitSimilarity; }
+    public void setAverageHitSimilarity(double averageHitSimilarity) { this.averageHitSimilarity = averageHitSimilarity; }
+
+    public double getMinHitSimilarity() { return minHitSimilarity; }
+    public void setMinHitSimilarity(double minHitSimilarity) { this.minHitSimilarity = minHitSimilarity; }
+
+    // Hits that were also answered with a full scan to measure how close the cached results were
+    public long getVerifiedHits() { return verifiedHits; }
+    public void setVerifiedHits(long verifiedHits) { this.verifiedHits = verifiedHits; }
+
+    // Fraction of the exact top-k ids present in the served results, over verified hits
+    public double getAverageRecall() { return averageRecall; }
+    public void setAverageRecall(double averageRecall) { this.averageRecall = averageRecall; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,9 @@
+package com.plotarmordb.core.model;
+
+// Order in which queued searches are admitted; lower classes may only fill part of the queue,
+// so a backlog of LOW searches cannot crowd out HIGH ones
+public enum SearchPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
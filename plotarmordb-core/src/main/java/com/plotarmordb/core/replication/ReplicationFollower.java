@@ -0,0 +1,189 @@
+package com.plotarmordb.core.replication;
+
+import com.plotarmordb.core.config.ReplicationConfig;
+import com.plotarmordb.core.exception.StorageException;
+import com.plotarmordb.core.metrics.ReplicationMetrics;
+import com.plotarmordb.core.storage.VectorStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+public class ReplicationFollower implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationFollower.class);
+    // A leader sends a heartbeat every poll interval; this many missed ones mean the connection
+    // is gone. The floor covers the checkpoint a leader takes before a snapshot's first byte.
+    private static final int MISSED_HEARTBEATS = 5;
+    private static final long MIN_READ_TIMEOUT_MILLIS = 10_000;
+
+    private final VectorStorage storage;
+    private final ReplicationConfig config;
+    private final Path stateFile;
+    private final Path snapshotDir;
+    private final LongAdder batchesApplied = new LongAdder();
+    private final LongAdder snapshotsLoaded = new LongAdder();
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile long nextSequence;
+    private volatile long leaderSequence;
+    private volatile long lastAppliedTime;
+    private volatile Socket socket;
+    private Thread thread;
+
+    public ReplicationFollower(VectorStorage storage, String dbPath, ReplicationConfig config) {
+        this.storage = storage;
+        this.config = config;
+        this.stateFile = Path.of(config.getStateFile() != null ? config.getStateFile() : dbPath + ".replication");
+        this.snapshotDir = Path.of(dbPath + ".snapshot");
+        this.nextSequence = loadNextSequence();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("plotarmor-replication-follower").daemon().start(this::run);
+    }
+
+    private void run() {
+        while (running) {
+            try (Socket s = new Socket()) {
+                int timeout = (int) Math.max(MIN_READ_TIMEOUT_MILLIS, MISSED_HEARTBEATS * config.getPollIntervalMillis());
+                s.connect(new InetSocketAddress(config.getLeaderHost(), config.getLeaderPort()), timeout);
+                s.setSoTimeout(timeout);
+                socket = s;
+                connected = true;
+                follow(s);
+            } catch (IOException | StorageException e) {
+                if (running) {
+                    log.warn("Replication from {}:{} interrupted, reconnecting",
+                            config.getLeaderHost(), config.getLeaderPort(), e);
+                }
+            } finally {
+                connected = false;
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(config.getReconnectDelayMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void follow(Socket s) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+        out.writeLong(nextSequence);
+        out.flush();
+
+        while (running) {
+            byte type = in.readByte();
+            switch (type) {
+                case ReplicationProtocol.BATCH -> {
+                    long sequence = in.readLong();
+                    int count = in.readInt();
+                    byte[] data = new byte[in.readInt()];
+                    in.readFully(data);
+                    storage.applyReplicatedBatch(data, sequence + count);
+                    advance(sequence + count);
+                    batchesApplied.increment();
+                }
+                case ReplicationProtocol.SNAPSHOT -> {
+                    deleteSnapshotDir();
+                    long sequence = ReplicationProtocol.readSnapshot(in, snapshotDir);
+                    // The old position must not survive a crash while the data is being replaced
+                    writeState(ReplicationProtocol.SNAPSHOT_REQUIRED);
+                    storage.replaceWith(snapshotDir);
+                    advance(sequence + 1);
+                    snapshotsLoaded.increment();
+                    log.info("Loaded leader snapshot at sequence {}", sequence);
+                }
+                case ReplicationProtocol.HEARTBEAT -> leaderSequence = in.readLong();
+                default -> throw new IOException("Unknown replication frame: " + type);
+            }
+        }
+    }
+
+    private void advance(long next) throws IOException {
+        nextSequence = next;
+        lastAppliedTime = System.currentTimeMillis();
+        writeState(next);
+    }
+
+    // Written after the batch is applied; a crash in between is caught up by the position
+    // the storage recorded with the batch
+    private void writeState(long next) throws IOException {
+        Path tmp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        Files.writeString(tmp, Long.toString(next), StandardCharsets.UTF_8);
+        Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long loadNextSequence() {
+        try {
+            if (Files.exists(stateFile)) {
+                long next = Long.parseLong(Files.readString(stateFile, StandardCharsets.UTF_8).trim());
+                return next == ReplicationProtocol.SNAPSHOT_REQUIRED
+                        ? next : Math.max(next, storage.getReplicatedSequence());
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Unreadable replication state in {}, requesting a snapshot", stateFile, e);
+        }
+        // Without a known position the only safe start is a full snapshot
+        return ReplicationProtocol.SNAPSHOT_REQUIRED;
+    }
+
+    private void deleteSnapshotDir() throws IOException {
+        if (!Files.exists(snapshotDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(snapshotDir);
+    }
+
+    public ReplicationMetrics getMetrics() {
+        ReplicationMetrics metrics = new ReplicationMetrics();
+        long next = nextSequence;
+        metrics.setConnected(connected);
+        metrics.setAppliedSequence(next == ReplicationProtocol.SNAPSHOT_REQUIRED ? 0 : next - 1);
+        metrics.setLeaderSequence(leaderSequence);
+        metrics.setLastAppliedTime(lastAppliedTime);
+        metrics.setBatchesApplied(batchesApplied.sum());
+        metrics.setSnapshotsLoaded(snapshotsLoaded.sum());
+        return metrics;
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        try {
+            Socket s = socket;
+            if (s != null) {
+                s.close();
+            }
+            if (thread != null) {
+                thread.join(5000);
+            }
+        } catch (IOException e) {
+            log.warn("Error while closing replication follower", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
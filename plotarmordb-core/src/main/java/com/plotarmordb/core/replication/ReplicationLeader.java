@@ -0,0 +1,181 @@
+package com.plotarmordb.core.replication;
+
+import com.plotarmordb.core.config.ReplicationConfig;
+import com.plotarmordb.core.exception.StorageException;
+import com.plotarmordb.core.storage.VectorStorage;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.TransactionLogIterator;
+import org.rocksdb.WriteBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+public class ReplicationLeader implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationLeader.class);
+
+    private final VectorStorage storage;
+    private final ReplicationConfig config;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+
+    public ReplicationLeader(VectorStorage storage, ReplicationConfig config) {
+        this.storage = storage;
+        this.config = config;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            serverSocket = new ServerSocket(config.getListenPort());
+        } catch (IOException e) {
+            throw new StorageException("Failed to listen for followers on port " + config.getListenPort(), e);
+        }
+        running = true;
+        acceptThread = Thread.ofPlatform().name("plotarmor-replication-leader").daemon().start(this::acceptLoop);
+    }
+
+    public int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                followers.add(socket);
+                Thread.ofVirtual().name("plotarmor-replication-" + socket.getRemoteSocketAddress())
+                        .start(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Failed to accept follower connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            long next = in.readLong();
+            log.info("Follower {} connected from sequence {}", socket.getRemoteSocketAddress(), next);
+
+            while (running) {
+                if (next == ReplicationProtocol.SNAPSHOT_REQUIRED) {
+                    next = sendSnapshot(out);
+                }
+                next = streamUpdates(out, next);
+                ReplicationProtocol.writeHeartbeat(out, storage.getLatestSequenceNumber());
+                if (next != ReplicationProtocol.SNAPSHOT_REQUIRED) {
+                    Thread.sleep(config.getPollIntervalMillis());
+                }
+            }
+        } catch (SocketException | EOFException e) {
+            log.info("Follower {} disconnected", socket.getRemoteSocketAddress());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Replication to follower {} failed", socket.getRemoteSocketAddress(), e);
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    // Sends every batch from the write log starting at next; returns the sequence to resume from
+    private long streamUpdates(DataOutputStream out, long next) throws IOException, RocksDBException {
+        if (next > storage.getLatestSequenceNumber()) {
+            return next;
+        }
+
+        TransactionLogIterator iterator;
+        try {
+            iterator = storage.getUpdatesSince(next);
+        } catch (StorageException e) {
+            log.info("Write log no longer covers sequence {}, sending snapshot", next);
+            return ReplicationProtocol.SNAPSHOT_REQUIRED;
+        }
+
+        try (iterator) {
+            while (iterator.isValid()) {
+                iterator.status();
+                TransactionLogIterator.BatchResult result = iterator.getBatch();
+                try (WriteBatch batch = result.writeBatch()) {
+                    long sequence = result.sequenceNumber();
+                    int count = batch.count();
+                    if (sequence > next) {
+                        log.info("Write log has a gap at sequence {}, sending snapshot", next);
+                        return ReplicationProtocol.SNAPSHOT_REQUIRED;
+                    }
+                    if (sequence + count > next) {
+                        ReplicationProtocol.writeBatch(out, sequence, count, batch.data());
+                        next = sequence + count;
+                    }
+                }
+                iterator.next();
+            }
+        }
+        out.flush();
+        return next;
+    }
+
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        Path checkpointDir = Files.createTempDirectory("plotarmor-replication-");
+        Path checkpoint = checkpointDir.resolve("checkpoint");
+        try {
+            long sequence = storage.createCheckpoint(checkpoint.toString());
+            ReplicationProtocol.writeSnapshot(out, sequence, checkpoint);
+            return sequence + 1;
+        } finally {
+            deleteRecursively(checkpointDir);
+        }
+    }
+
+    private void deleteRecursively(Path path) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(path)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path p : paths) {
+            Files.deleteIfExists(p);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+            for (Socket follower : followers) {
+                follower.close();
+            }
+            if (acceptThread != null) {
+                acceptThread.join(5000);
+            }
+        } catch (IOException e) {
+            log.warn("Error while closing replication leader", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.plotarmordb.core.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plotarmordb.core.config.PlotArmorConfig;
+import com.plotarmordb.core.config.ReplicationConfig;
+import com.plotarmordb.core.config.StorageConfig;
+import com.plotarmordb.core.metrics.ReplicationMetrics;
+import com.plotarmordb.core.model.Vector;
+import com.plotarmordb.core.storage.VectorStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// One storage run as a replication leader or follower, as picked by plotarmor.replication.role.
+// Run as its own process with
+//   java -cp <classpath> com.plotarmordb.core.replication.ReplicationNode node.properties
+// a leader stores the vectors piped to it, one JSON Vector per line, and keeps serving followers
+// after the input ends; a follower applies the leader's write log and rejects local writes.
+public class ReplicationNode implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationNode.class);
+    private static final int INGEST_CHUNK_SIZE = 1000;
+    private static final long STATUS_INTERVAL_MILLIS = 10_000;
+
+    private final VectorStorage storage;
+    private final ReplicationLeader leader; // null on followers
+    private final ReplicationFollower follower; // null on leaders
+
+    public ReplicationNode(PlotArmorConfig config) {
+        ReplicationConfig replication = config.getReplication();
+        String dbPath = config.getDb().getPath();
+        switch (replication.getRole()) {
+            case LEADER -> {
+                // Archived WAL lets a follower that was away catch up without a full snapshot
+                this.storage = new VectorStorage(StorageConfig.builder()
+                        .dbPath(dbPath)
+                        .walTtlSeconds(replication.getWalTtlSeconds())
+                        .build());
+                this.leader = new ReplicationLeader(storage, replication);
+                this.follower = null;
+            }
+            case FOLLOWER -> {
+                this.storage = new VectorStorage(StorageConfig.builder()
+                        .dbPath(dbPath)
+                        .replicationFollower(true)
+                        .build());
+                this.leader = null;
+                this.follower = new ReplicationFollower(storage, dbPath, replication);
+            }
+            default -> throw new IllegalArgumentException(
+                    "plotarmor.replication.role must be leader or follower, not " + replication.getRole());
+        }
+    }
+
+    public void start() {
+        if (leader != null) {
+            leader.start();
+            log.info("Replication leader listening on port {}", leader.getLocalPort());
+        } else {
+            follower.start();
+        }
+    }
+
+    public VectorStorage getStorage() {
+        return storage;
+    }
+
+    // Null on a leader
+    public ReplicationMetrics getFollowerMetrics() {
+        return follower != null ? follower.getMetrics() : null;
+    }
+
+    // Stores vectors given one JSON object per line; lines that do not parse are skipped
+    public long storeLines(InputStream input) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        long stored = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<Vector> chunk = new ArrayList<>(INGEST_CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(objectMapper.readValue(line, Vector.class));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable vector line: {}", e.getMessage());
+                    continue;
+                }
+                if (chunk.size() == INGEST_CHUNK_SIZE) {
+                    storage.storeBatch(chunk);
+                    stored += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                storage.storeBatch(chunk);
+                stored += chunk.size();
+            }
+        }
+        return stored;
+    }
+
+    private void logStatus() {
+        if (leader != null) {
+            log.info("Leader at sequence {} with {} followers",
+                    storage.getLatestSequenceNumber(), leader.getFollowerCount());
+        } else {
+            ReplicationMetrics metrics = follower.getMetrics();
+            log.info("Follower {} at sequence {}, {} behind the leader",
+                    metrics.isConnected() ? "connected" : "disconnected",
+                    metrics.getAppliedSequence(), metrics.getSequenceLag());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (leader != null) {
+            leader.close();
+        }
+        if (follower != null) {
+            follower.close();
+        }
+        storage.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: ReplicationNode <properties file>");
+            System.exit(2);
+        }
+        PlotArmorConfig config = new PlotArmorConfig.Builder().loadFromProperties(Path.of(args[0])).build();
+        ReplicationNode node = new ReplicationNode(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(node::close, "plotarmor-replication-shutdown"));
+        node.start();
+
+        if (node.leader != null && System.console() == null) {
+            log.info("Stored {} vectors from standard input", node.storeLines(System.in));
+        }
+        while (true) {
+            Thread.sleep(STATUS_INTERVAL_MILLIS);
+            node.logStatus();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.plotarmordb.core.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Wire format: the follower sends the next sequence it needs, the leader answers with a stream of frames
+final class ReplicationProtocol {
+    static final byte SNAPSHOT = 'S';
+    static final byte BATCH = 'B';
+    static final byte HEARTBEAT = 'H';
+
+    static final long SNAPSHOT_REQUIRED = -1;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private ReplicationProtocol() {}
+
+    static void writeBatch(DataOutputStream out, long sequence, int count, byte[] data) throws IOException {
+        out.writeByte(BATCH);
+        out.writeLong(sequence);
+        out.writeInt(count);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    static void writeHeartbeat(DataOutputStream out, long leaderSequence) throws IOException {
+        out.writeByte(HEARTBEAT);
+        out.writeLong(leaderSequence);
+        out.flush();
+    }
+
+    static void writeSnapshot(DataOutputStream out, long sequence, Path checkpointDir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(checkpointDir)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        out.writeByte(SNAPSHOT);
+        out.writeLong(sequence);
+        out.writeInt(files.size());
+        for (Path file : files) {
+            out.writeUTF(file.getFileName().toString());
+            out.writeLong(Files.size(file));
+            try (InputStream in = Files.newInputStream(file)) {
+                in.transferTo(out);
+            }
+        }
+        out.flush();
+    }
+
+    static long readSnapshot(DataInputStream in, Path targetDir) throws IOException {
+        long sequence = in.readLong();
+        int fileCount = in.readInt();
+        Files.createDirectories(targetDir);
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        for (int i = 0; i < fileCount; i++) {
+            String name = in.readUTF();
+            Path file = targetDir.resolve(name).normalize();
+            if (!file.getParent().equals(targetDir.normalize())) {
+                throw new IOException("Invalid snapshot file name: " + name);
+            }
+
+            long remaining = in.readLong();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        throw new IOException("Snapshot stream ended inside " + name);
+                    }
+                    out.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,80 @@
+package com.plotarmordb.core.search;
+
+import com.plotarmordb.core.config.SearchConfig;
+import com.plotarmordb.core.metrics.ScanMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+// Picks vectors per scan chunk. By default the size follows from the dimension alone and is
+// capped at SearchConfig.batchSize. In adaptive mode every scored chunk reports how long it took
+// and chunks are sized to take targetBatchMillis at the measured speed. Speed is kept per vector
+// element, so a measurement at one dimension still gives a good first guess at another.
+final class BatchSizeTuner {
+    // Weight of the newest chunk in the moving averages
+    private static final double SMOOTHING = 0.2;
+    private static final int MAX_ADAPTIVE_CHUNK_SIZE = 1 << 16;
+
+    private final ScanPool scanPool;
+    private final SearchConfig config;
+    private final long targetNanos;
+
+    private double nanosPerElement; // 0 until the first chunk is measured
+    private double averageBatchNanos;
+    private long batches;
+    private volatile int chunkSize;
+    private volatile int dimension;
+
+    BatchSizeTuner(ScanPool scanPool, SearchConfig config) {
+        this.scanPool = scanPool;
+        this.config = config;
+        this.targetNanos = (long) (config.getTargetBatchMillis() * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    int chunkSize(int dimension, long collectionSize) {
+        int size;
+        if (config.isAdaptiveBatchSize()) {
+            double measured;
+            synchronized (this) {
+                measured = nanosPerElement;
+            }
+            long targetFloats = measured > 0 ? (long) (targetNanos / measured) : ScanPool.TARGET_CHUNK_FLOATS;
+            size = scanPool.chunkSize(targetFloats, dimension, collectionSize, MAX_ADAPTIVE_CHUNK_SIZE);
+        } else {
+            size = scanPool.chunkSize(ScanPool.TARGET_CHUNK_FLOATS, dimension, collectionSize,
+                    config.getBatchSize());
+        }
+        this.chunkSize = size;
+        this.dimension = dimension;
+        return size;
+    }
+
+    // Called once per scored chunk; chunks cut short by a deadline report what they scanned
+    void record(int vectors, int dimension, long nanos) {
+        if (vectors <= 0 || dimension <= 0) {
+            return;
+        }
+        double perElement = (double) nanos / ((long) vectors * dimension);
+        synchronized (this) {
+            if (batches == 0) {
+                nanosPerElement = perElement;
+                averageBatchNanos = nanos;
+            } else {
+                nanosPerElement += SMOOTHING * (perElement - nanosPerElement);
+                averageBatchNanos += SMOOTHING * (nanos - averageBatchNanos);
+            }
+            batches++;
+        }
+    }
+
+    synchronized ScanMetrics getMetrics() {
+        ScanMetrics metrics = new ScanMetrics();
+        metrics.setAdaptive(config.isAdaptiveBatchSize());
+        metrics.setChunkSize(chunkSize);
+        metrics.setDimension(dimension);
+        metrics.setTargetBatchMillis(config.getTargetBatchMillis());
+        metrics.setAverageBatchMillis(averageBatchNanos / TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.setNanosPerVector(nanosPerElement * dimension);
+        metrics.setBatches(batches);
+        return metrics;
+    }
+}
@@ -0,0 +1,209 @@
+package com.plotarmordb.core.search;
+
+import com.plotarmordb.core.model.SearchResult;
+import com.plotarmordb.core.model.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Scores stored vectors against many queries at once, keeping a bounded top-k heap per query.
+// Sparse vectors are reduced to their non-zero entries and dotted with every query. Dense ones
+// are scored in tiles: VECTOR_BLOCK vectors against QUERY_TILE queries over DIMENSION_TILE
+// dimensions at a time, about 64KB together, so each slice is loaded into cache once per tile
+// pair instead of once per query or per vector. Each dot still adds its products in dimension
+// order, so scores equal VectorMath.calculateCosineSimilarity; skipped zero products add nothing.
+final class MultiQueryScorer {
+    private static final int QUERY_BLOCK = 4;
+    private static final int QUERY_TILE = 2 * QUERY_BLOCK;
+    private static final int VECTOR_BLOCK = 8;
+    private static final int DIMENSION_TILE = 1024;
+    // Vectors with at most 1/SPARSE_RATIO non-zero entries take the gather path
+    private static final int SPARSE_RATIO = 8;
+
+    private final float[][] queries;
+    private final double[] queryNorms;
+    private final int topK;
+    private final List<PriorityQueue<SearchResult>> heaps;
+
+    private int[] nonZeroIndices = new int[0];
+    private float[] nonZeroValues = new float[0];
+    private final double[] dots;
+    // Dense vectors waiting for a full block, with their squared norms and running dots
+    private final Vector[] block = new Vector[VECTOR_BLOCK];
+    private final double[] blockNorms = new double[VECTOR_BLOCK];
+    private final double[][] blockDots;
+    private int blockSize;
+
+    MultiQueryScorer(float[][] queries, double[] queryNorms, int topK) {
+        this.queries = queries;
+        this.queryNorms = queryNorms;
+        this.topK = topK;
+        this.heaps = new ArrayList<>(queries.length);
+        for (int i = 0; i < queries.length; i++) {
+            heaps.add(new PriorityQueue<>(Comparator.comparingDouble(SearchResult::getSimilarity)));
+        }
+        this.dots = new double[queries.length];
+        this.blockDots = new double[VECTOR_BLOCK][queries.length];
+    }
+
+    static double squaredNorm(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        return norm;
+    }
+
+    void score(List<Vector> vectors) {
+        for (Vector vector : vectors) {
+            score(vector);
+        }
+        flushBlock();
+    }
+
+    // Dense vectors are only scored once their block fills up or flushBlock is called
+    private void score(Vector vector) {
+        float[] values = vector.getValues();
+        if (values.length != queries[0].length) {
+            throw new IllegalArgumentException("Vectors must have same length");
+        }
+
+        double norm = 0;
+        int nonZeros = 0;
+        for (float value : values) {
+            if (value != 0.0f) {
+                norm += value * value;
+                nonZeros++;
+            }
+        }
+
+        if (nonZeros * SPARSE_RATIO > values.length) {
+            block[blockSize] = vector;
+            blockNorms[blockSize++] = norm;
+            if (blockSize == VECTOR_BLOCK) {
+                flushBlock();
+            }
+            return;
+        }
+        gatherDots(values, nonZeros);
+        offerAll(vector, norm, dots);
+    }
+
+    private void gatherDots(float[] values, int nonZeros) {
+        if (nonZeroIndices.length < nonZeros) {
+            nonZeroIndices = new int[Math.max(nonZeros, nonZeroIndices.length * 2)];
+            nonZeroValues = new float[nonZeroIndices.length];
+        }
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0.0f) {
+                nonZeroIndices[size] = i;
+                nonZeroValues[size++] = values[i];
+            }
+        }
+
+        for (int q = 0; q < queries.length; q++) {
+            float[] query = queries[q];
+            double dot = 0;
+            for (int i = 0; i < size; i++) {
+                dot += query[nonZeroIndices[i]] * nonZeroValues[i];
+            }
+            dots[q] = dot;
+        }
+    }
+
+    private void flushBlock() {
+        if (blockSize == 0) {
+            return;
+        }
+        for (int v = 0; v < blockSize; v++) {
+            Arrays.fill(blockDots[v], 0.0);
+        }
+        int dimensions = queries[0].length;
+        for (int from = 0; from < dimensions; from += DIMENSION_TILE) {
+            int to = Math.min(from + DIMENSION_TILE, dimensions);
+            for (int tile = 0; tile < queries.length; tile += QUERY_TILE) {
+                int tileEnd = Math.min(tile + QUERY_TILE, queries.length);
+                for (int v = 0; v < blockSize; v++) {
+                    blockedDots(block[v].getValues(), from, to, tile, tileEnd, blockDots[v]);
+                }
+            }
+        }
+        for (int v = 0; v < blockSize; v++) {
+            offerAll(block[v], blockNorms[v], blockDots[v]);
+            block[v] = null;
+        }
+        blockSize = 0;
+    }
+
+    // Adds values[from, to) dotted with queries [first, last) to their running dots, QUERY_BLOCK
+    // queries per sweep
+    private void blockedDots(float[] values, int from, int to, int first, int last, double[] dots) {
+        int q = first;
+        for (; q + QUERY_BLOCK <= last; q += QUERY_BLOCK) {
+            float[] q0 = queries[q];
+            float[] q1 = queries[q + 1];
+            float[] q2 = queries[q + 2];
+            float[] q3 = queries[q + 3];
+            double d0 = dots[q];
+            double d1 = dots[q + 1];
+            double d2 = dots[q + 2];
+            double d3 = dots[q + 3];
+            for (int i = from; i < to; i++) {
+                float value = values[i];
+                d0 += q0[i] * value;
+                d1 += q1[i] * value;
+                d2 += q2[i] * value;
+                d3 += q3[i] * value;
+            }
+            dots[q] = d0;
+            dots[q + 1] = d1;
+            dots[q + 2] = d2;
+            dots[q + 3] = d3;
+        }
+        for (; q < last; q++) {
+            float[] query = queries[q];
+            double dot = dots[q];
+            for (int i = from; i < to; i++) {
+                dot += query[i] * values[i];
+            }
+            dots[q] = dot;
+        }
+    }
+
+    private void offerAll(Vector vector, double norm, double[] dots) {
+        for (int q = 0; q < queries.length; q++) {
+            double norms = Math.sqrt(queryNorms[q]) * Math.sqrt(norm);
+            offer(q, vector, norms > 0 ? dots[q] / norms : 0.0);
+        }
+    }
+
+    private void offer(int query, Vector vector, double similarity) {
+        PriorityQueue<SearchResult> heap = heaps.get(query);
+        if (heap.size() < topK) {
+            heap.add(new SearchResult(vector, similarity));
+        } else if (topK > 0 && similarity > heap.peek().getSimilarity()) {
+            heap.poll();
+            heap.add(new SearchResult(vector, similarity));
+        }
+    }
+
+    // Folds another scorer's heaps into this one's
+    void merge(MultiQueryScorer other) {
+        for (int q = 0; q < queries.length; q++) {
+            for (SearchResult result : other.heaps.get(q)) {
+                offer(q, result.getVector(), result.getSimilarity());
+            }
+        }
+    }
+
+    // Best first
+    List<SearchResult> results(int query) {
+        List<SearchResult> results = new ArrayList<>(heaps.get(query));
+        results.sort(Comparator.comparingDouble(SearchResult::getSimilarity).reversed());
+        return results;
+    }
+}
@@ -0,0 +1,206 @@
+package com.plotarmordb.core.search;
+
+import com.plotarmordb.core.cache.EmbeddingCache;
+import com.plotarmordb.core.config.CacheConfig;
+import com.plotarmordb.core.config.EmbeddingConfig;
+import com.plotarmordb.core.config.SearchConfig;
+import com.plotarmordb.core.embedding.EmbeddedDocuments;
+import com.plotarmordb.core.embedding.TextEmbeddingEngine;
+import com.plotarmordb.core.exception.SearchRejectedException;
+import com.plotarmordb.core.model.SearchRequest;
+import com.plotarmordb.core.model.SearchResponse;
+import com.plotarmordb.core.model.SearchResult;
+import com.plotarmordb.core.model.TextRequest;
+import com.plotarmordb.core.model.Vector;
+import com.plotarmordb.core.storage.ShardedVectorStorage;
+import com.plotarmordb.core.storage.TermStatistics;
+import com.plotarmordb.core.storage.VectorStorage;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ShardedSearchEngine implements AutoCloseable {
+    private final ShardedVectorStorage storage;
+    private final List<VectorSearchEngine> shardEngines;
+    private final TextEmbeddingEngine embeddingEngine;
+    private final EmbeddingCache embeddingCache; // null when disabled
+    // Scatter threads only wait on the shard engines, which do the CPU work themselves
+    private final ExecutorService scatterExecutor;
+
+    public ShardedSearchEngine(ShardedVectorStorage storage, SearchConfig searchConfig,
+                               CacheConfig cacheConfig, EmbeddingConfig embeddingConfig) {
+        this.storage = storage;
+        List<VectorSearchEngine> engines = new ArrayList<>(storage.getShardCount());
+        for (VectorStorage shard : storage.getShards()) {
+            engines.add(new VectorSearchEngine(shard, searchConfig, cacheConfig, embeddingConfig));
+        }
+        this.shardEngines = List.copyOf(engines);
+        // One embedding engine for every shard, so a term maps to the same index everywhere;
+        // its vocabulary is persisted in the first shard
+        this.embeddingEngine = new TextEmbeddingEngine(embeddingConfig,
+                storage.getShards().get(0).getVocabularyStore());
+        this.embeddingCache = cacheConfig.getEmbeddingMaxBytes() > 0 ? new EmbeddingCache(cacheConfig) : null;
+        this.scatterExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public ShardedVectorStorage getStorage() {
+        return storage;
+    }
+
+    public List<SearchResult> search(float[] queryVector, int topK, Map<String, String> filter) {
+        if (shardEngines.size() == 1) {
+            return shardEngines.get(0).search(queryVector, topK, filter);
+        }
+
+        try {
+            List<Future<List<SearchResult>>> futures = new ArrayList<>(shardEngines.size());
+            for (VectorSearchEngine engine : shardEngines) {
+                futures.add(scatterExecutor.submit(() -> engine.search(queryVector, topK, filter)));
+            }
+
+            // Every shard returns its own top-k, so the global top-k is always among them
+            List<SearchResult> merged = new ArrayList<>(topK * shardEngines.size());
+            for (Future<List<SearchResult>> future : futures) {
+                merged.addAll(future.get());
+            }
+            merged.sort(Comparator.comparingDouble(SearchResult::getSimilarity).reversed());
+            return merged.size() > topK ? new ArrayList<>(merged.subList(0, topK)) : merged;
+        } catch (Exception e) {
+            throw failure("Sharded search failed", e);
+        }
+    }
+
+    public List<SearchResult> search(SearchRequest request) {
+        return searchWithCoverage(request).getResults();
+    }
+
+    public CompletableFuture<List<SearchResult>> searchAsync(float[] queryVector, int topK, Map<String, String> filter) {
+        return CompletableFuture.supplyAsync(() -> search(queryVector, topK, filter), scatterExecutor);
+    }
+
+    public CompletableFuture<SearchResponse> searchAsync(SearchRequest request) {
+        return CompletableFuture.supplyAsync(() -> searchWithCoverage(request), scatterExecutor);
+    }
+
+    // Each shard runs under the request's deadline; coverage adds up over the shards
+    public SearchResponse searchWithCoverage(SearchRequest request) {
+        if (shardEngines.size() == 1) {
+            return shardEngines.get(0).searchWithCoverage(request);
+        }
+        if (request.isFirstMatches() && request.getMinSimilarity() == null) {
+            throw new IllegalArgumentException("First-match search needs a minSimilarity");
+        }
+
+        int limit = request.resultLimit();
+        try {
+            List<Future<SearchResponse>> futures = new ArrayList<>(shardEngines.size());
+            for (VectorSearchEngine engine : shardEngines) {
+                futures.add(scatterExecutor.submit(() -> engine.searchWithCoverage(request)));
+            }
+
+            List<SearchResult> merged = new ArrayList<>();
+            long scanned = 0;
+            long total = 0;
+            for (Future<SearchResponse> future : futures) {
+                SearchResponse response = future.get();
+                merged.addAll(response.getResults());
+                scanned += response.getScanned();
+                total += response.getTotal();
+            }
+            // First-match results are any matches, so they are only cut to the limit
+            if (!request.isFirstMatches()) {
+                merged.sort(Comparator.comparingDouble(SearchResult::getSimilarity).reversed());
+            }
+            return new SearchResponse(merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged,
+                    scanned, total);
+        } catch (Exception e) {
+            throw failure("Sharded search failed", e);
+        }
+    }
+
+    public List<List<SearchResult>> searchBatch(List<float[]> queryVectors, int topK, Map<String, String> filter) {
+        if (shardEngines.size() == 1) {
+            return shardEngines.get(0).searchBatch(queryVectors, topK, filter);
+        }
+
+        try {
+            List<Future<List<List<SearchResult>>>> futures = new ArrayList<>(shardEngines.size());
+            for (VectorSearchEngine engine : shardEngines) {
+                futures.add(scatterExecutor.submit(() -> engine.searchBatch(queryVectors, topK, filter)));
+            }
+
+            List<List<SearchResult>> merged = new ArrayList<>(queryVectors.size());
+            for (int i = 0; i < queryVectors.size(); i++) {
+                merged.add(new ArrayList<>(topK * shardEngines.size()));
+            }
+            for (Future<List<List<SearchResult>>> future : futures) {
+                List<List<SearchResult>> shardResults = future.get();
+                for (int i = 0; i < shardResults.size(); i++) {
+                    merged.get(i).addAll(shardResults.get(i));
+                }
+            }
+            for (int i = 0; i < merged.size(); i++) {
+                List<SearchResult> results = merged.get(i);
+                results.sort(Comparator.comparingDouble(SearchResult::getSimilarity).reversed());
+                if (results.size() > topK) {
+                    merged.set(i, new ArrayList<>(results.subList(0, topK)));
+                }
+            }
+            return merged;
+        } catch (Exception e) {
+            throw failure("Sharded batch search failed", e);
+        }
+    }
+
+    // A shard that turned the search away rejects it as a whole
+    private static RuntimeException failure(String message, Exception e) {
+        if (e instanceof ExecutionException && e.getCause() instanceof SearchRejectedException) {
+            return (SearchRejectedException) e.getCause();
+        }
+        return new RuntimeException(message, e);
+    }
+
+    public String storeText(TextRequest request) {
+        return storeTexts(List.of(request)).get(0);
+    }
+
+    public List<String> storeTexts(List<TextRequest> requests) {
+        EmbeddedDocuments documents = embeddingEngine.embedDocuments(requests);
+        storage.storeTextBatch(documents.getVectors(), documents.getNewTerms());
+        return documents.getVectors().stream().map(Vector::getId).toList();
+    }
+
+    public List<SearchResult> searchByText(String query, int topK, Map<String, String> filter) {
+        float[] queryVector = embeddingCache != null
+                ? embeddingCache.getOrCompute(query, embeddingEngine.getVocabularyGeneration(),
+                        embeddingEngine::generateSparseEmbedding)
+                : embeddingEngine.generateEmbedding(query);
+        List<TermStatistics> statistics = new ArrayList<>(storage.getShardCount());
+        for (VectorStorage shard : storage.getShards()) {
+            statistics.add(shard.getTermStatistics());
+        }
+        TermStatistics.applyIdf(queryVector, statistics);
+        return search(queryVector, topK, filter);
+    }
+
+    @Override
+    public void close() {
+        scatterExecutor.shutdown();
+        try {
+            if (!scatterExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                scatterExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scatterExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        for (VectorSearchEngine engine : shardEngines) {
+            engine.close();
+        }
+    }
+}
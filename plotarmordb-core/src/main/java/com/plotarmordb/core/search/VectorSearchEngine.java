@@ -6,53 +6,452 @@ import com.plotarmordb.core.model.*;
 import com.plotarmordb.core.model.Vector;
 import com.plotarmordb.core.storage.VectorStorage;
 import com.plotarmordb.core.config.SearchConfig;
+import com.plotarmordb.core.cache.EmbeddingCache;
 import com.plotarmordb.core.cache.SearchCache;
+import com.plotarmordb.core.cache.SemanticCache;
+import com.plotarmordb.core.exception.SearchRejectedException;
+import com.plotarmordb.core.metrics.AdmissionMetrics;
+import com.plotarmordb.core.metrics.CacheMetrics;
+import com.plotarmordb.core.metrics.ScanMetrics;
+import com.plotarmordb.core.metrics.SemanticCacheMetrics;
+import com.plotarmordb.core.embedding.EmbeddedDocuments;
 import com.plotarmordb.core.embedding.TextEmbeddingEngine;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class VectorSearchEngine implements AutoCloseable {
+    private static final int CANCELLATION_CHECK_INTERVAL = 64;
+    private static final long CANCELLATION_GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // Ranked results a streamed search reads back from storage at once
+    private static final int STREAM_PAGE_SIZE = 64;
+    // First matches a streamed search lets pile up before its scan waits for the consumer
+    private static final int STREAM_QUEUE_CAPACITY = 4 * STREAM_PAGE_SIZE;
+
     private final VectorStorage storage;
     private final SearchCache cache;
+    private final SemanticCache semanticCache; // null unless enabled
     private final TextEmbeddingEngine embeddingEngine;
+    private final EmbeddingCache embeddingCache; // null when disabled
     private final SearchConfig config;
-    private final AtomicReference<ExecutorService> executor;
+    private final ScanPool scanPool;
+    private final BatchSizeTuner batchSizeTuner;
+    private final AdmissionController admission;
+    // Async callers get a virtual thread each: it mostly waits on storage reads, the scan pool
+    // and admission, none of which should tie up a platform thread
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public VectorSearchEngine(VectorStorage storage, SearchConfig searchConfig,
                               CacheConfig cacheConfig, EmbeddingConfig embeddingConfig) {
         this.storage = storage;
         this.config = searchConfig;
         this.cache = new SearchCache(cacheConfig);
-        this.embeddingEngine = new TextEmbeddingEngine(embeddingConfig);
-        this.executor = new AtomicReference<>(createExecutor());
+        this.semanticCache = cacheConfig.isSemanticEnabled() ? new SemanticCache(cacheConfig) : null;
+        this.embeddingEngine = new TextEmbeddingEngine(embeddingConfig, storage.getVocabularyStore());
+        this.embeddingCache = cacheConfig.getEmbeddingMaxBytes() > 0 ? new EmbeddingCache(cacheConfig) : null;
+        this.scanPool = ScanPool.shared();
+        this.batchSizeTuner = new BatchSizeTuner(scanPool, searchConfig);
+        this.admission = new AdmissionController(searchConfig);
     }
 
-    private ExecutorService createExecutor() {
-        return Executors.newVirtualThreadPerTaskExecutor();
+    // Runs under SearchConfig's deadline; a search cut short returns what it scored so far
+    public List<SearchResult> search(float[] queryVector, int topK, Map<String, String> filter) {
+        return search(queryVector, topK, filter, null, new SearchDeadline(config.getTimeoutMillis()),
+                SearchPriority.NORMAL).getResults();
     }
 
-    public List<SearchResult> search(float[] queryVector, int topK, Map<String, String> filter) {
-        String filterHash = filter != null ? filter.toString() : "";
+    public List<SearchResult> search(SearchRequest request) {
+        return searchWithCoverage(request).getResults();
+    }
+
+    public CompletableFuture<List<SearchResult>> searchAsync(float[] queryVector, int topK, Map<String, String> filter) {
+        return CompletableFuture.supplyAsync(() -> search(queryVector, topK, filter), asyncExecutor);
+    }
+
+    // Completes with searchWithCoverage's response, or exceptionally with what it would throw,
+    // e.g. SearchRejectedException
+    public CompletableFuture<SearchResponse> searchAsync(SearchRequest request) {
+        return CompletableFuture.supplyAsync(() -> searchWithCoverage(request), asyncExecutor);
+    }
+
+    // Like search(SearchRequest), but also reports how much of the collection was scanned
+    // before the deadline. Scans wait for a slot when admission control is on and throw
+    // SearchRejectedException when none frees up; cached answers never wait.
+    public SearchResponse searchWithCoverage(SearchRequest request) {
+        SearchDeadline deadline = new SearchDeadline(request.getTimeoutMillis() != null
+                ? request.getTimeoutMillis() : config.getTimeoutMillis());
+        int limit = request.resultLimit();
+        Double minSimilarity = request.getMinSimilarity();
+        if (!request.isFirstMatches()) {
+            return search(request.getQueryVector(), limit, request.getFilter(), minSimilarity, deadline,
+                    request.getPriority());
+        }
+        if (minSimilarity == null) {
+            throw new IllegalArgumentException("First-match search needs a minSimilarity");
+        }
+        try (AdmissionController.Permit permit = admission.acquire(request.getPriority())) {
+            List<SearchResult> results = new ArrayList<>();
+            SearchResponse coverage = searchFirstMatches(addPadding(request.getQueryVector()), limit, minSimilarity,
+                    request.getFilter(), deadline, results::add);
+            if (deadline.expired()) {
+                permit.markOverloaded();
+            }
+            return new SearchResponse(results, coverage.getScanned(), coverage.getTotal());
+        }
+    }
+
+    // Hands results to the consumer as they are settled instead of returning them; the response
+    // carries coverage only. First-match results are handed over a page at a time as the scan
+    // finds them, through a bounded queue so the consumer runs on this thread, outside the
+    // admission slot the scan holds on another. A ranked scan keeps just ids and scores of the running top k, so results
+    // follow once it ends, best first, read back from storage STREAM_PAGE_SIZE at a time.
+    // Streamed scans are admitted like searchWithCoverage's but not cached.
+    public SearchResponse searchStream(SearchRequest request, Consumer<SearchResult> consumer) {
+        SearchDeadline deadline = new SearchDeadline(request.getTimeoutMillis() != null
+                ? request.getTimeoutMillis() : config.getTimeoutMillis());
+        int limit = request.resultLimit();
+        Double minSimilarity = request.getMinSimilarity();
+        if (request.isFirstMatches() && minSimilarity == null) {
+            throw new IllegalArgumentException("First-match search needs a minSimilarity");
+        }
+        float[] paddedQueryVector = addPadding(request.getQueryVector());
+
+        if (!request.isFirstMatches()) {
+            SearchCache.Query cacheQuery = SearchCache.query(paddedQueryVector, limit, request.getFilter());
+            SearchCache.CachedResults cachedResults = cache.get(cacheQuery,
+                    storage.getGeneration(request.getFilter()));
+            if (cachedResults != null) {
+                List<TopKIds.Entry> ranked = new ArrayList<>(cachedResults.size());
+                for (int i = 0; i < cachedResults.size()
+                        && (minSimilarity == null || cachedResults.getScore(i) >= minSimilarity); i++) {
+                    ranked.add(new TopKIds.Entry(cachedResults.getId(i), cachedResults.getScore(i)));
+                }
+                emitRanked(ranked, consumer);
+                return new SearchResponse(Collections.emptyList(), 0, 0);
+            }
+        }
+
+        if (request.isFirstMatches()) {
+            return ResultHandoff.stream(asyncExecutor, STREAM_QUEUE_CAPACITY, handoff -> {
+                try (AdmissionController.Permit permit = admission.acquire(request.getPriority())) {
+                    SearchResponse coverage = searchFirstMatches(paddedQueryVector, limit, minSimilarity,
+                            request.getFilter(), deadline, handoff);
+                    if (deadline.expired()) {
+                        permit.markOverloaded();
+                    }
+                    return coverage;
+                }
+            }, consumer);
+        }
+
+        BatchResult scan;
+        try (AdmissionController.Permit permit = admission.acquire(request.getPriority())) {
+            scan = scan(paddedQueryVector, request.getFilter(),
+                    minSimilarity != null ? minSimilarity : Double.NEGATIVE_INFINITY, deadline,
+                    () -> new BatchResult(new TopKIds(limit)));
+            if (scan.scanned < scan.total) {
+                permit.markOverloaded();
+            } else {
+                permit.recordFullScan(scan.scanned);
+            }
+        }
+        // Read back outside the admission slot, so a slow consumer does not count as a slow scan
+        if (scan.top != null) {
+            emitRanked(scan.top.sorted(), consumer);
+        }
+        return new SearchResponse(Collections.emptyList(), scan.scanned, scan.total);
+    }
 
+    // Ids whose vector was deleted since they were ranked are skipped
+    private void emitRanked(List<TopKIds.Entry> ranked, Consumer<SearchResult> consumer) {
+        for (int from = 0; from < ranked.size(); from += STREAM_PAGE_SIZE) {
+            List<TopKIds.Entry> page = ranked.subList(from, Math.min(from + STREAM_PAGE_SIZE, ranked.size()));
+            List<String> ids = new ArrayList<>(page.size());
+            for (TopKIds.Entry entry : page) {
+                ids.add(entry.id);
+            }
+            Map<String, Vector> vectors = new HashMap<>();
+            for (Vector vector : storage.retrieveBatch(ids)) {
+                vectors.put(vector.getId(), vector);
+            }
+            for (TopKIds.Entry entry : page) {
+                Vector vector = vectors.get(entry.id);
+                if (vector != null) {
+                    consumer.accept(new SearchResult(vector, entry.score));
+                }
+            }
+        }
+    }
+
+    // The top k above a threshold are the top k cut at the threshold, so cached rankings still
+    // answer thresholded queries; a thresholded or partial scan is not cached since it may hold
+    // fewer than (or different) k
+    private SearchResponse search(float[] queryVector, int topK, Map<String, String> filter,
+                                  Double minSimilarity, SearchDeadline deadline, SearchPriority priority) {
         float[] paddedQueryVector = addPadding(queryVector);
+        SearchCache.Query cacheQuery = SearchCache.query(paddedQueryVector, topK, filter);
+        // Taken before the scan, so a write that races with it makes this entry stale
+        long generation = storage.getGeneration(filter);
         // Check cache first
-        List<SearchResult> cachedResults = cache.get(paddedQueryVector, topK, filterHash);
+        SearchCache.CachedResults cachedResults = cache.get(cacheQuery, generation);
         if (cachedResults != null) {
-            return cachedResults;
+            List<SearchResult> hydrated = hydrate(cachedResults);
+            if (hydrated != null) {
+                return new SearchResponse(atLeast(hydrated, minSimilarity), 0, 0);
+            }
+            cache.invalidate(cacheQuery);
+        }
+        if (minSimilarity != null) {
+            return admittedScan(paddedQueryVector, topK, filter, minSimilarity, deadline, priority);
         }
 
-        try {
-            List<Vector> vectors = storage.scanAll();
-            List<SearchResult> results = searchParallel(vectors, paddedQueryVector, topK, filter);
+        SemanticCache.Match match = semanticCache != null ? semanticCache.get(cacheQuery, generation) : null;
+        if (match != null && !match.shouldVerify()) {
+            List<SearchResult> hydrated = hydrate(match.getResults());
+            if (hydrated != null) {
+                return new SearchResponse(rescore(hydrated, paddedQueryVector), 0, 0);
+            }
+        }
+
+        SearchResponse response = admittedScan(paddedQueryVector, topK, filter, Double.NEGATIVE_INFINITY,
+                deadline, priority);
+        if (response.isPartial()) {
+            return response;
+        }
+        List<SearchResult> results = response.getResults();
+
+        // Cache results
+        cache.put(cacheQuery, generation, results);
+        if (semanticCache != null) {
+            if (match != null && match.shouldVerify()) {
+                semanticCache.recordVerification(match, results);
+            }
+            semanticCache.put(cacheQuery, generation, results);
+        }
+        return response;
+    }
+
+    private SearchResponse admittedScan(float[] queryVector, int topK, Map<String, String> filter,
+                                        double minSimilarity, SearchDeadline deadline, SearchPriority priority) {
+        try (AdmissionController.Permit permit = admission.acquire(priority)) {
+            SearchResponse response = searchParallel(queryVector, topK, filter, minSimilarity, deadline);
+            if (response.isPartial()) {
+                permit.markOverloaded();
+            } else {
+                permit.recordFullScan(response.getScanned());
+            }
+            return response;
+        }
+    }
+
+    // Answers many queries with one scan: every stored vector is scored against all queries that
+    // missed the cache before moving on. Results come back in query order. The scan is admitted
+    // as LOW priority bulk work.
+    public List<List<SearchResult>> searchBatch(List<float[]> queryVectors, int topK, Map<String, String> filter) {
+        List<List<SearchResult>> results = new ArrayList<>(Collections.nCopies(queryVectors.size(), null));
+        long generation = storage.getGeneration(filter);
+
+        List<Integer> pending = new ArrayList<>();
+        List<SearchCache.Query> cacheQueries = new ArrayList<>();
+        List<float[]> paddedQueries = new ArrayList<>();
+        for (int i = 0; i < queryVectors.size(); i++) {
+            float[] paddedQueryVector = addPadding(queryVectors.get(i));
+            SearchCache.Query cacheQuery = SearchCache.query(paddedQueryVector, topK, filter);
+            SearchCache.CachedResults cachedResults = cache.get(cacheQuery, generation);
+            List<SearchResult> hydrated = cachedResults != null ? hydrate(cachedResults) : null;
+            if (hydrated != null) {
+                results.set(i, hydrated);
+            } else {
+                pending.add(i);
+                cacheQueries.add(cacheQuery);
+                paddedQueries.add(paddedQueryVector);
+            }
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
 
-            // Cache results
-            cache.put(paddedQueryVector, topK, filterHash, results);
+        try (AdmissionController.Permit permit = admission.acquire(SearchPriority.LOW)) {
+            MultiQueryScorer scorer = scoreParallel(paddedQueries.toArray(new float[0][]), topK, filter, permit);
+            for (int i = 0; i < pending.size(); i++) {
+                List<SearchResult> queryResults = scorer.results(i);
+                cache.put(cacheQueries.get(i), generation, queryResults);
+                results.set(pending.get(i), queryResults);
+            }
             return results;
+        } catch (SearchRejectedException e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Search failed", e);
+            throw new RuntimeException("Batch search failed", e);
+        }
+    }
+
+    // Chunks are scored against every query while the scan reads on, and merged as they finish
+    // like scan's, so only the per-query top k outlive a chunk
+    private MultiQueryScorer scoreParallel(float[][] queries, int topK, Map<String, String> filter,
+                                           AdmissionController.Permit permit) throws Exception {
+        double[] queryNorms = new double[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            queryNorms[i] = MultiQueryScorer.squaredNorm(queries[i]);
+        }
+
+        // Each vector is scored against every query, so a chunk's work grows with the batch
+        int work = queries[0].length * queries.length;
+        int chunkSize = batchSizeTuner.chunkSize(work, storage.getApproximateCount());
+        List<Future<MultiQueryScorer>> futures = new ArrayList<>();
+        ScanPool.Job job = scanPool.newJob();
+        MultiQueryScorer merged = new MultiQueryScorer(queries, queryNorms, topK);
+        long[] read = new long[1];
+        storage.scanBatches(chunkSize, () -> false, batch -> {
+            read[0] += batch.size();
+            futures.removeIf(future -> {
+                if (future.state() != Future.State.SUCCESS) {
+                    return false;
+                }
+                merged.merge(future.resultNow());
+                return true;
+            });
+            futures.add(job.submit(() -> {
+                long start = System.nanoTime();
+                MultiQueryScorer batchScorer = new MultiQueryScorer(queries, queryNorms, topK);
+                List<Vector> matching = new ArrayList<>(batch.size());
+                for (Vector vector : batch) {
+                    if (matchesFilter(vector, filter)) {
+                        matching.add(vector);
+                    }
+                }
+                batchScorer.score(matching);
+                batchSizeTuner.record(batch.size(), work, System.nanoTime() - start);
+                return batchScorer;
+            }));
+        });
+
+        for (Future<MultiQueryScorer> future : futures) {
+            merged.merge(future.get());
         }
+        permit.recordFullScan(read[0] * queries.length);
+        return merged;
+    }
+
+    // Returns null if a cached id no longer exists, so the caller falls back to a scan
+    private List<SearchResult> hydrate(SearchCache.CachedResults cachedResults) {
+        List<Vector> vectors = storage.retrieveBatch(cachedResults.getIds());
+        if (vectors.size() != cachedResults.size()) {
+            return null;
+        }
+
+        List<SearchResult> results = new ArrayList<>(vectors.size());
+        for (int i = 0; i < vectors.size(); i++) {
+            results.add(new SearchResult(vectors.get(i), cachedResults.getScore(i)));
+        }
+        return results;
+    }
+
+    // A semantic hit was ranked for a neighbouring query; score its vectors against this one
+    private static List<SearchResult> rescore(List<SearchResult> neighbours, float[] paddedQueryVector) {
+        List<SearchResult> results = new ArrayList<>(neighbours.size());
+        for (SearchResult neighbour : neighbours) {
+            Vector vector = neighbour.getVector();
+            results.add(new SearchResult(vector,
+                    VectorMath.calculateCosineSimilarity(paddedQueryVector, vector.getValues())));
+        }
+        results.sort(Comparator.comparingDouble(SearchResult::getSimilarity).reversed());
+        return results;
+    }
+
+    private static List<SearchResult> atLeast(List<SearchResult> ranked, Double minSimilarity) {
+        if (minSimilarity == null) {
+            return ranked;
+        }
+        int end = 0;
+        while (end < ranked.size() && ranked.get(end).getSimilarity() >= minSimilarity) {
+            end++;
+        }
+        return end == ranked.size() ? ranked : new ArrayList<>(ranked.subList(0, end));
+    }
+
+    // Reads the collection a page at a time and stops at the first page that completes the
+    // limit; within a page, workers stop as soon as the shared count is reached. Each page's
+    // matches go to the consumer once the page is scored, in storage order, not by similarity;
+    // the response carries coverage only.
+    private SearchResponse searchFirstMatches(float[] queryVector, int limit, double minSimilarity,
+                                              Map<String, String> filter, SearchDeadline deadline,
+                                              Consumer<SearchResult> consumer) {
+        List<SearchResult> none = Collections.emptyList();
+        if (limit <= 0) {
+            return new SearchResponse(none, 0, 0);
+        }
+        int batchSize = batchSizeTuner.chunkSize(queryVector.length, storage.getApproximateCount());
+        int pageSize = batchSize * scanPool.getParallelism();
+        AtomicInteger found = new AtomicInteger();
+        long scanned = 0;
+
+        try {
+            String startId = null;
+            while (found.get() < limit) {
+                List<Vector> page = storage.scanRange(startId, null, pageSize);
+                List<Future<BatchResult>> futures = new ArrayList<>();
+                ScanPool.Job job = scanPool.newJob();
+                for (List<Vector> batch : splitIntoBatches(page, batchSize)) {
+                    futures.add(job.submit(() -> {
+                        long start = System.nanoTime();
+                        BatchResult matches = new BatchResult();
+                        for (Vector vector : batch) {
+                            if (found.get() >= limit
+                                    || (matches.scanned % CANCELLATION_CHECK_INTERVAL == 0 && deadline.expired())) {
+                                break;
+                            }
+                            matches.scanned++;
+                            if (matchesFilter(vector, filter)) {
+                                double similarity = VectorMath.calculateCosineSimilarity(queryVector, vector.getValues());
+                                if (similarity >= minSimilarity && found.getAndIncrement() < limit) {
+                                    matches.results.add(new SearchResult(vector, similarity));
+                                }
+                            }
+                        }
+                        batchSizeTuner.record(matches.scanned, queryVector.length, System.nanoTime() - start);
+                        return matches;
+                    }));
+                }
+                BatchResult collected = collect(futures, deadline, new BatchResult());
+                collected.results.forEach(consumer);
+                scanned += collected.scanned;
+                if (deadline.expired() && found.get() < limit) {
+                    // Whatever has not been read is uncovered; the estimate is all that is cheap
+                    return new SearchResponse(none, scanned, Math.max(scanned + 1, storage.getApproximateCount()));
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+                // The smallest id after the last one read
+                startId = page.get(page.size() - 1).getId() + '\0';
+            }
+            return new SearchResponse(none, scanned, scanned);
+        } catch (Exception e) {
+            throw new RuntimeException("First-match search failed", e);
+        }
+    }
+
+    // Waits for the batch tasks until the deadline plus a grace period for them to notice it;
+    // a task still running after that is cancelled and its batch counts as not scanned
+    private BatchResult collect(List<Future<BatchResult>> futures, SearchDeadline deadline,
+                                BatchResult collected) throws Exception {
+        for (Future<BatchResult> future : futures) {
+            try {
+                BatchResult batchResult = deadline.isBounded()
+                        ? future.get(Math.max(0, deadline.remainingNanos()) + CANCELLATION_GRACE_NANOS,
+                        TimeUnit.NANOSECONDS)
+                        : future.get();
+                collected.merge(batchResult);
+            } catch (TimeoutException e) {
+                deadline.cancel();
+                future.cancel(true);
+            }
+        }
+        return collected;
     }
 
     private float[] addPadding(float[] queryVector) {
@@ -68,38 +467,70 @@ public class VectorSearchEngine implements AutoCloseable {
         return embedding;
     }
 
+    // Embeds and stores text documents, the only writes that count toward the term statistics
+    // searchByText weights queries with; returns the stored ids, generated where none was given
+    public String storeText(TextRequest request) {
+        return storeTexts(List.of(request)).get(0);
+    }
+
+    public List<String> storeTexts(List<TextRequest> requests) {
+        EmbeddedDocuments documents = embeddingEngine.embedDocuments(requests);
+        storage.storeTextBatch(documents.getVectors(), documents.getNewTerms());
+        return documents.getVectors().stream().map(Vector::getId).toList();
+    }
+
     public List<SearchResult> searchByText(String query, int topK, Map<String, String> filter) {
-        float[] queryVector = embeddingEngine.generateEmbedding(query);
+        float[] queryVector = embeddingCache != null
+                ? embeddingCache.getOrCompute(query, embeddingEngine.getVocabularyGeneration(),
+                        embeddingEngine::generateSparseEmbedding)
+                : embeddingEngine.generateEmbedding(query);
+        // Stored documents hold plain TF; rare terms are boosted on the query side
+        storage.getTermStatistics().applyIdf(queryVector);
         return search(queryVector, topK, filter);
     }
 
-    private List<SearchResult> searchParallel(List<Vector> vectors, float[] queryVector,
-                                              int topK, Map<String, String> filter) {
-        int batchSize = config.getBatchSize();
-        List<List<Vector>> batches = splitIntoBatches(vectors, batchSize);
-
+    private SearchResponse searchParallel(float[] queryVector, int topK, Map<String, String> filter,
+                                          double minSimilarity, SearchDeadline deadline) {
         PriorityQueue<SearchResult> resultQueue = new PriorityQueue<>(
                 Comparator.comparingDouble(SearchResult::getSimilarity).reversed()
         );
+        BatchResult collected = scan(addPadding(queryVector), filter, minSimilarity, deadline, BatchResult::new);
+        resultQueue.addAll(collected.results);
+        return new SearchResponse(extractTopK(resultQueue, topK), collected.scanned, collected.total);
+    }
 
-        float[] paddedQueryVector = addPadding(queryVector);
-
+    // Batches are scored while the scan reads on, each into a fresh BatchResult from newBatch,
+    // and merged into one as they finish so that, e.g., only one TopKIds outlives its chunk.
+    // The deadline bounds the read as well; a scan it cuts short leaves the rest of the
+    // collection uncovered, which is only known approximately.
+    private BatchResult scan(float[] paddedQueryVector, Map<String, String> filter, double minSimilarity,
+                             SearchDeadline deadline, Supplier<BatchResult> newBatch) {
         try {
-            List<Future<List<SearchResult>>> futures = new ArrayList<>();
-            ExecutorService currentExecutor = executor.get();
+            List<Future<BatchResult>> futures = new ArrayList<>();
+            ScanPool.Job job = scanPool.newJob();
+            int chunkSize = batchSizeTuner.chunkSize(paddedQueryVector.length, storage.getApproximateCount());
+            long[] read = new long[1];
 
             // Submit batch processing tasks
-            for (List<Vector> batch : batches) {
-                futures.add(currentExecutor.submit(() ->
-                        processBatch(batch, paddedQueryVector, filter)));
-            }
+            BatchResult merged = new BatchResult();
+            boolean complete = storage.scanBatches(chunkSize, deadline::expired, batch -> {
+                read[0] += batch.size();
+                // Failed batches are left for collect, which reports them
+                futures.removeIf(future -> {
+                    if (future.state() != Future.State.SUCCESS) {
+                        return false;
+                    }
+                    merged.merge(future.resultNow());
+                    return true;
+                });
+                futures.add(job.submit(() ->
+                        processBatch(batch, paddedQueryVector, filter, minSimilarity, deadline, newBatch.get())));
+            });
 
-            // Collect and merge results
-            for (Future<List<SearchResult>> future : futures) {
-                resultQueue.addAll(future.get());
-            }
-
-            return extractTopK(resultQueue, topK);
+            // Collect and merge the rest
+            BatchResult collected = collect(futures, deadline, merged);
+            collected.total = complete ? read[0] : Math.max(read[0] + 1, storage.getApproximateCount());
+            return collected;
         } catch (Exception e) {
             throw new RuntimeException("Parallel search failed", e);
         }
@@ -113,20 +544,64 @@ public class VectorSearchEngine implements AutoCloseable {
         return batches;
     }
 
-    private List<SearchResult> processBatch(List<Vector> batch, float[] queryVector,
-                                            Map<String, String> filter) {
-        List<SearchResult> batchResults = new ArrayList<>();
+    // Candidates below minSimilarity are never materialized. The deadline is polled every
+    // CANCELLATION_CHECK_INTERVAL vectors; an expired search keeps what it has scored so far.
+    private BatchResult processBatch(List<Vector> batch, float[] queryVector, Map<String, String> filter,
+                                     double minSimilarity, SearchDeadline deadline, BatchResult batchResult) {
         float[] paddedQueryVector = addPadding(queryVector);
+        long start = System.nanoTime();
 
         for (Vector vector : batch) {
+            if (batchResult.scanned % CANCELLATION_CHECK_INTERVAL == 0 && deadline.expired()) {
+                break;
+            }
+            batchResult.scanned++;
             if (matchesFilter(vector, filter)) {
                 double similarity = VectorMath.calculateCosineSimilarity(
                         paddedQueryVector, vector.getValues());
-                batchResults.add(new SearchResult(vector, similarity));
+                if (similarity >= minSimilarity) {
+                    batchResult.add(vector, similarity);
+                }
             }
         }
 
-        return batchResults;
+        batchSizeTuner.record(batchResult.scanned, paddedQueryVector.length, System.nanoTime() - start);
+        return batchResult;
+    }
+
+    // Keeps SearchResults, or with a TopKIds only the ids and scores that rank
+    private static final class BatchResult {
+        private final List<SearchResult> results = new ArrayList<>();
+        private TopKIds top;
+        private int scanned;
+        private long total;
+
+        BatchResult() {
+        }
+
+        BatchResult(TopKIds top) {
+            this.top = top;
+        }
+
+        void add(Vector vector, double similarity) {
+            if (top != null) {
+                top.offer(vector.getId(), similarity);
+            } else {
+                results.add(new SearchResult(vector, similarity));
+            }
+        }
+
+        void merge(BatchResult other) {
+            results.addAll(other.results);
+            if (other.top != null) {
+                if (top == null) {
+                    top = other.top;
+                } else {
+                    top.addAll(other.top);
+                }
+            }
+            scanned += other.scanned;
+        }
     }
 
     private boolean matchesFilter(Vector vector, Map<String, String> filter) {
@@ -154,20 +629,65 @@ public class VectorSearchEngine implements AutoCloseable {
         return results;
     }
 
+    public CacheMetrics getCacheMetrics() {
+        return cache.getMetrics();
+    }
+
+    public CacheMetrics getEmbeddingCacheMetrics() {
+        return embeddingCache != null ? embeddingCache.getMetrics() : null;
+    }
+
+    public SemanticCacheMetrics getSemanticCacheMetrics() {
+        return semanticCache != null ? semanticCache.getMetrics() : null;
+    }
+
+    // Null when admission control is off
+    public AdmissionMetrics getAdmissionMetrics() {
+        return admission.isEnabled() ? admission.getMetrics() : null;
+    }
+
+    // Chunk size the scans settled on and how long chunks take
+    public ScanMetrics getScanMetrics() {
+        return batchSizeTuner.getMetrics();
+    }
+
+    public void restoreLatestBackup() {
+        storage.restoreLatestBackup();
+        // Stale entries would be rejected by generation anyway; clearing frees them now
+        clearCaches();
+    }
+
+    public void restoreBackup(int backupId) {
+        storage.restoreBackup(backupId);
+        clearCaches();
+    }
+
+    private void clearCaches() {
+        embeddingEngine.reloadVocabulary();
+        if (embeddingCache != null) {
+            embeddingCache.clear();
+        }
+        cache.clear();
+        if (semanticCache != null) {
+            semanticCache.clear();
+        }
+    }
+
+    // The scan pool is shared with other engines and outlives this one
     @Override
     public void close() {
-        ExecutorService currentExecutor = executor.get();
-        if (currentExecutor != null) {
-            currentExecutor.shutdown();
-            try {
-                if (!currentExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                    currentExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                currentExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
+        asyncExecutor.shutdown();
+        try {
+            if (!asyncExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                asyncExecutor.shutdownNow();
             }
+        } catch (InterruptedException e) {
+            asyncExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
         cache.close();
+        if (semanticCache != null) {
+            semanticCache.clear();
+        }
     }
 }
\ No newline at end of file
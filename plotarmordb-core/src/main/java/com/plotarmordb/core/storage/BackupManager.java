@@ -0,0 +1,69 @@
+package com.plotarmordb.core.storage;
+
+import com.plotarmordb.core.exception.StorageException;
+import org.rocksdb.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BackupManager implements AutoCloseable {
+    private final BackupEngineOptions backupOptions;
+    private final BackupEngine backupEngine;
+    private final int maxBackups;
+
+    BackupManager(String backupPath, int maxBackups) {
+        try {
+            Files.createDirectories(Path.of(backupPath));
+            // Shared table files make every backup after the first incremental
+            this.backupOptions = new BackupEngineOptions(backupPath)
+                    .setShareTableFiles(true)
+                    .setShareFilesWithChecksum(true)
+                    .setMaxBackgroundOperations(2);
+            this.backupEngine = BackupEngine.open(Env.getDefault(), backupOptions);
+            this.maxBackups = maxBackups;
+        } catch (Exception e) {
+            throw new StorageException("Failed to open backup engine at: " + backupPath, e);
+        }
+    }
+
+    synchronized BackupInfo createBackup(RocksDB db) {
+        try {
+            // Flushing first keeps the WAL out of the backup; writers are not blocked
+            backupEngine.createNewBackup(db, true);
+            if (maxBackups > 0) {
+                backupEngine.purgeOldBackups(maxBackups);
+            }
+            List<BackupInfo> backups = backupEngine.getBackupInfo();
+            return backups.get(backups.size() - 1);
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to create incremental backup", e);
+        }
+    }
+
+    synchronized void restoreLatest(String dbPath) {
+        try (RestoreOptions restoreOptions = new RestoreOptions(false)) {
+            backupEngine.restoreDbFromLatestBackup(dbPath, dbPath, restoreOptions);
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to restore latest backup into: " + dbPath, e);
+        }
+    }
+
+    synchronized void restore(int backupId, String dbPath) {
+        try (RestoreOptions restoreOptions = new RestoreOptions(false)) {
+            backupEngine.restoreDbFromBackup(backupId, dbPath, dbPath, restoreOptions);
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to restore backup " + backupId + " into: " + dbPath, e);
+        }
+    }
+
+    public synchronized List<BackupInfo> getBackupInfo() {
+        return backupEngine.getBackupInfo();
+    }
+
+    @Override
+    public synchronized void close() {
+        backupEngine.close();
+        backupOptions.close();
+    }
+}
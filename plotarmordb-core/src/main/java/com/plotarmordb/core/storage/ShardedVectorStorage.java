@@ -0,0 +1,209 @@
+package com.plotarmordb.core.storage;
+
+import com.google.common.hash.Hashing;
+import com.plotarmordb.core.config.StorageConfig;
+import com.plotarmordb.core.exception.StorageException;
+import com.plotarmordb.core.model.Vector;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ShardedVectorStorage implements AutoCloseable {
+    private final List<VectorStorage> shards;
+    // Fans a batch out to its shards, each write waiting on its own sync
+    private final ExecutorService writeExecutor;
+
+    public ShardedVectorStorage(StorageConfig config) {
+        int shardCount = config.getShardCount();
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1");
+        }
+
+        List<VectorStorage> opened = new ArrayList<>(shardCount);
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                opened.add(new VectorStorage(shardConfig(config, i)));
+            }
+        } catch (RuntimeException e) {
+            opened.forEach(VectorStorage::close);
+            throw e;
+        }
+        this.shards = List.copyOf(opened);
+        this.writeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    private static StorageConfig shardConfig(StorageConfig config, int shard) {
+        String shardName = "shard-" + shard;
+        StorageConfig.Builder builder = config.toBuilder()
+                .dbPath(Path.of(config.getDbPath(), shardName).toString());
+        if (config.getBackupPath() != null) {
+            builder.backupPath(Path.of(config.getBackupPath(), shardName).toString());
+        }
+        if (config.getSecondaryPath() != null) {
+            builder.secondaryPath(Path.of(config.getSecondaryPath(), shardName).toString());
+        }
+        return builder.build();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<VectorStorage> getShards() {
+        return shards;
+    }
+
+    public int shardFor(String id) {
+        // Stable across processes and restarts, unlike identity or seeded hashes
+        int hash = Hashing.murmur3_32_fixed().hashString(id, StandardCharsets.UTF_8).asInt();
+        return Math.floorMod(hash, shards.size());
+    }
+
+    public VectorStorage shardOf(String id) {
+        return shards.get(shardFor(id));
+    }
+
+    public void store(Vector vector) {
+        if (vector == null || vector.getId() == null) {
+            throw new IllegalArgumentException("Vector and vector ID cannot be null");
+        }
+        shardOf(vector.getId()).store(vector);
+    }
+
+    public CompletableFuture<Void> storeAsync(Vector vector) {
+        if (vector == null || vector.getId() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Vector and vector ID cannot be null"));
+        }
+        return shardOf(vector.getId()).storeAsync(vector);
+    }
+
+    public CompletableFuture<Void> storeBatchAsync(List<Vector> vectors) {
+        return CompletableFuture.runAsync(() -> storeBatch(vectors), writeExecutor);
+    }
+
+    public void storeBatch(List<Vector> vectors) {
+        if (vectors == null || vectors.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<Vector>> byShard = groupByShard(vectors);
+        List<Future<?>> futures = new ArrayList<>(byShard.size());
+        for (Map.Entry<Integer, List<Vector>> entry : byShard.entrySet()) {
+            VectorStorage shard = shards.get(entry.getKey());
+            futures.add(writeExecutor.submit(() -> shard.storeBatch(entry.getValue())));
+        }
+        awaitAll(futures, "Failed to store sharded vector batch");
+    }
+
+    // The vocabulary lives in the first shard, so new terms are persisted there, before any
+    // other shard stores a document using them
+    public void storeTextBatch(List<Vector> vectors, Map<String, Integer> newTerms) {
+        if (vectors == null || vectors.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<Vector>> byShard = groupByShard(vectors);
+        if (newTerms != null && !newTerms.isEmpty()) {
+            shards.get(0).storeTextBatch(byShard.getOrDefault(0, List.of()), newTerms);
+            byShard.remove(0);
+        }
+
+        List<Future<?>> futures = new ArrayList<>(byShard.size());
+        for (Map.Entry<Integer, List<Vector>> entry : byShard.entrySet()) {
+            VectorStorage shard = shards.get(entry.getKey());
+            futures.add(writeExecutor.submit(() -> shard.storeTextBatch(entry.getValue(), Map.of())));
+        }
+        awaitAll(futures, "Failed to store sharded text batch");
+    }
+
+    private Map<Integer, List<Vector>> groupByShard(List<Vector> vectors) {
+        Map<Integer, List<Vector>> byShard = new HashMap<>();
+        for (Vector vector : vectors) {
+            if (vector == null || vector.getId() == null) {
+                throw new IllegalArgumentException("Vector and vector ID cannot be null");
+            }
+            byShard.computeIfAbsent(shardFor(vector.getId()), shard -> new ArrayList<>()).add(vector);
+        }
+        return byShard;
+    }
+
+    public Optional<Vector> retrieve(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return shardOf(id).retrieve(id);
+    }
+
+    public List<Vector> retrieveBatch(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, List<String>> byShard = new HashMap<>();
+        for (String id : ids) {
+            // A null id finds nothing, like a missing one
+            if (id != null) {
+                byShard.computeIfAbsent(shardFor(id), shard -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Map<String, Vector> found = new HashMap<>();
+        for (Map.Entry<Integer, List<String>> entry : byShard.entrySet()) {
+            for (Vector vector : shards.get(entry.getKey()).retrieveBatch(entry.getValue())) {
+                found.put(vector.getId(), vector);
+            }
+        }
+
+        // Keep the caller's order
+        List<Vector> results = new ArrayList<>(found.size());
+        for (String id : ids) {
+            Vector vector = found.get(id);
+            if (vector != null) {
+                results.add(vector);
+            }
+        }
+        return results;
+    }
+
+    public void delete(String id) {
+        if (id == null) {
+            return;
+        }
+        shardOf(id).delete(id);
+    }
+
+    private void awaitAll(List<Future<?>> futures, String message) {
+        StorageException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StorageException(message, e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new StorageException(message, e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void close() {
+        writeExecutor.shutdown();
+        for (VectorStorage shard : shards) {
+            shard.close();
+        }
+    }
+}
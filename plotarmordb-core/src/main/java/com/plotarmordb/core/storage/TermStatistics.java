@@ -0,0 +1,77 @@
+package com.plotarmordb.core.storage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-index document frequencies over the bag-of-words vectors in one storage,
+// kept in memory and mirrored in the storage's term statistics column family
+public class TermStatistics {
+    private final AtomicLongArray documentFrequencies;
+    private final AtomicLong documentCount = new AtomicLong();
+
+    TermStatistics(int dimension) {
+        this.documentFrequencies = new AtomicLongArray(dimension);
+    }
+
+    public int getDimension() {
+        return documentFrequencies.length();
+    }
+
+    public long getDocumentCount() {
+        return documentCount.get();
+    }
+
+    public long getDocumentFrequency(int index) {
+        return index < documentFrequencies.length() ? documentFrequencies.get(index) : 0;
+    }
+
+    // Weights a query embedding in place by smoothed IDF, ln((1 + N) / (1 + df)) + 1
+    public void applyIdf(float[] query) {
+        applyIdf(query, List.of(this));
+    }
+
+    // Statistics of several shards combine by summing their counts
+    public static void applyIdf(float[] query, List<TermStatistics> statistics) {
+        long documents = 0;
+        for (TermStatistics stats : statistics) {
+            documents += stats.getDocumentCount();
+        }
+        if (documents == 0) {
+            return;
+        }
+
+        for (int i = 0; i < query.length; i++) {
+            if (query[i] != 0.0f) {
+                long frequency = 0;
+                for (TermStatistics stats : statistics) {
+                    frequency += stats.getDocumentFrequency(i);
+                }
+                query[i] *= (float) (Math.log((1.0 + documents) / (1.0 + frequency)) + 1.0);
+            }
+        }
+    }
+
+    void add(int index, long delta) {
+        documentFrequencies.addAndGet(index, delta);
+    }
+
+    void addDocuments(long delta) {
+        documentCount.addAndGet(delta);
+    }
+
+    void set(int index, long frequency) {
+        documentFrequencies.set(index, frequency);
+    }
+
+    void setDocuments(long documents) {
+        documentCount.set(documents);
+    }
+
+    void reset() {
+        for (int i = 0; i < documentFrequencies.length(); i++) {
+            documentFrequencies.set(i, 0);
+        }
+        documentCount.set(0);
+    }
+}
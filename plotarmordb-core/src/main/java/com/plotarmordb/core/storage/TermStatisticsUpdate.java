@@ -0,0 +1,112 @@
+package com.plotarmordb.core.storage;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+// Document frequency changes from one write, applied through the uint64add merge operator
+// in the same WriteBatch as the vectors, then to the in-memory statistics. Only vectors embedded
+// from text count as documents; each keeps the indices of its terms in a record of its own, so a
+// later overwrite or delete can subtract them without reading the old vector.
+final class TermStatisticsUpdate {
+    static final byte[] DOCUMENT_COUNT_KEY = "documents".getBytes();
+
+    private final RocksDB db;
+    private final WriteBatch batch;
+    private final ColumnFamilyHandle documentsColumn;
+    private final int dimension;
+    // Documents already changed in this batch; a null value means removed
+    private final Map<String, byte[]> pending = new HashMap<>();
+    private final Map<Integer, Long> deltas = new HashMap<>();
+    private long documents;
+
+    TermStatisticsUpdate(RocksDB db, WriteBatch batch, ColumnFamilyHandle documentsColumn, int dimension) {
+        this.db = db;
+        this.batch = batch;
+        this.documentsColumn = documentsColumn;
+        this.dimension = dimension;
+    }
+
+    // The non-zero entries of a text embedding are exactly the document's terms
+    void add(String id, float[] values) throws RocksDBException {
+        remove(id);
+
+        int length = Math.min(values.length, dimension);
+        int terms = 0;
+        for (int i = 0; i < length; i++) {
+            if (values[i] != 0.0f) {
+                terms++;
+            }
+        }
+        ByteBuffer record = ByteBuffer.allocate(terms * Integer.BYTES);
+        for (int i = 0; i < length; i++) {
+            if (values[i] != 0.0f) {
+                record.putInt(i);
+                deltas.merge(i, 1L, Long::sum);
+            }
+        }
+        batch.put(documentsColumn, id.getBytes(), record.array());
+        pending.put(id, record.array());
+        documents++;
+    }
+
+    // Safe to call for ids that were never counted, e.g. plain vector writes
+    void remove(String id) throws RocksDBException {
+        byte[] key = id.getBytes();
+        byte[] record;
+        if (pending.containsKey(id)) {
+            record = pending.get(id);
+        } else {
+            // keyMayExist answers most ids without a text record without a read
+            record = db.keyMayExist(documentsColumn, key, null) ? db.get(documentsColumn, key) : null;
+        }
+        if (record == null) {
+            return;
+        }
+
+        ByteBuffer indices = ByteBuffer.wrap(record);
+        while (indices.hasRemaining()) {
+            deltas.merge(indices.getInt(), -1L, Long::sum);
+        }
+        batch.delete(documentsColumn, key);
+        pending.put(id, null);
+        documents--;
+    }
+
+    void writeTo(ColumnFamilyHandle column) throws RocksDBException {
+        for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                batch.merge(column, indexKey(delta.getKey()), encode(delta.getValue()));
+            }
+        }
+        if (documents != 0) {
+            batch.merge(column, DOCUMENT_COUNT_KEY, encode(documents));
+        }
+    }
+
+    void applyTo(TermStatistics statistics) {
+        for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+            statistics.add(delta.getKey(), delta.getValue());
+        }
+        statistics.addDocuments(documents);
+    }
+
+    static byte[] indexKey(int index) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(index).array();
+    }
+
+    // uint64add expects fixed 64-bit little-endian values; adding a negative wraps around
+    static byte[] encode(long value) {
+        return ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array();
+    }
+
+    static long decode(byte[] value) {
+        return ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN).getLong();
+    }
+}
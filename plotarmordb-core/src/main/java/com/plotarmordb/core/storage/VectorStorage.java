@@ -1,39 +1,96 @@
 package com.plotarmordb.core.storage;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plotarmordb.core.cache.TinyLfuCache;
+import com.plotarmordb.core.embedding.VocabularyStore;
 import com.plotarmordb.core.model.Vector;
 import com.plotarmordb.core.config.StorageConfig;
 import com.plotarmordb.core.exception.StorageException;
+import com.plotarmordb.core.metrics.CacheMetrics;
+import com.plotarmordb.core.metrics.ReplicaMetrics;
 
 import com.plotarmordb.core.search.VectorMath;
 import org.rocksdb.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class VectorStorage implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(VectorStorage.class);
+    private static final byte[] VOCABULARY_COLUMN = "vocabulary".getBytes();
+    private static final byte[] TERM_STATS_COLUMN = "term_stats".getBytes();
+    private static final byte[] TEXT_DOCUMENTS_COLUMN = "text_documents".getBytes();
+    private static final byte[] REPLICATION_COLUMN = "replication".getBytes();
+    private static final byte[] REPLICATED_SEQUENCE_KEY = "next".getBytes();
+    private static final int DIMENSION = 10000;
+
     private RocksDB db;
     private final ObjectMapper objectMapper;
     private final StorageConfig config;
     private final ReadWriteLock lock;
     private final Options options;
+    private final DBOptions dbOptions;
+    private final ColumnFamilyOptions columnOptions;
+    private final ColumnFamilyOptions termStatsOptions;
+    private List<ColumnFamilyHandle> columnHandles = List.of();
+    private ColumnFamilyHandle vocabularyColumn;
+    private ColumnFamilyHandle termStatsColumn;
+    private ColumnFamilyHandle textDocumentsColumn;
+    private ColumnFamilyHandle replicationColumn;
     private final WriteOptions writeOptions;
     private final ReadOptions readOptions;
+    private BackupManager backupManager;
+    private ScheduledExecutorService scheduler;
+    // storeAsync and storeBatchAsync mostly wait on synced writes, one virtual thread each
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile long lastCatchUpTime;
+    private final LongAdder catchUpFailures = new LongAdder();
+    private final WriteGenerations generations = new WriteGenerations();
+    // Decoded vectors for hot ids, about 4 bytes per dimension each; null when disabled
+    private final TinyLfuCache<String, Vector> rowCache;
+    private final TermStatistics termStatistics = new TermStatistics(DIMENSION);
+    private volatile boolean termStatisticsStale = true;
+    private final Object vocabularyLock = new Object();
+    private int nextTermIndex; // guarded by vocabularyLock, recounted when stale
+    // Indices handed out for documents not yet written; guarded by vocabularyLock
+    private final Map<String, Integer> reservedTerms = new HashMap<>();
+    private volatile boolean vocabularyStale = true;
+    private final AtomicLong vocabularyGeneration = new AtomicLong();
 
     public VectorStorage(StorageConfig config) {
         this.config = config;
         this.objectMapper = new ObjectMapper();
         this.lock = new ReentrantReadWriteLock();
         this.options = createOptions();
+        this.dbOptions = new DBOptions(options).setCreateMissingColumnFamilies(true);
+        this.columnOptions = new ColumnFamilyOptions(options);
+        this.termStatsOptions = new ColumnFamilyOptions(options).setMergeOperatorName("uint64add");
         this.writeOptions = new WriteOptions().setSync(true);
         this.readOptions = new ReadOptions().setVerifyChecksums(true);
+        this.rowCache = config.getRowCacheMaxBytes() > 0
+                ? new TinyLfuCache<>(config.getRowCacheMaxBytes(), 0, VectorStorage::estimatedBytes,
+                config.getRowCacheMaxBytes() / (4L * DIMENSION))
+                : null;
         initialize();
     }
 
@@ -51,26 +108,173 @@ public class VectorStorage implements AutoCloseable {
             options.setCompressionType(CompressionType.LZ4_COMPRESSION);
         }
 
+        if (config.isSecondary()) {
+            // Secondary instances must keep every table file open to follow the primary
+            options.setMaxOpenFiles(-1);
+        }
+
+        if (config.getWalTtlSeconds() > 0) {
+            options.setWalTtlSeconds(config.getWalTtlSeconds());
+        }
+        if (config.getWalSizeLimitMb() > 0) {
+            options.setWalSizeLimitMB(config.getWalSizeLimitMb());
+        }
+
         return options;
     }
 
     private void initialize() {
         try {
             RocksDB.loadLibrary();
-            Files.createDirectories(Path.of(config.getDbPath()));
 
             lock.writeLock().lock();
             try {
-                db = RocksDB.open(options, config.getDbPath());
+                if (config.isSecondary()) {
+                    Files.createDirectories(Path.of(config.getSecondaryPath()));
+                    lastCatchUpTime = System.currentTimeMillis();
+                } else {
+                    Files.createDirectories(Path.of(config.getDbPath()));
+                }
+                db = openDb();
             } finally {
                 lock.writeLock().unlock();
             }
         } catch (Exception e) {
             throw new StorageException("Failed to initialize storage", e);
         }
+
+        if (config.isSecondary()) {
+            if (config.getCatchUpIntervalMillis() > 0) {
+                long interval = config.getCatchUpIntervalMillis();
+                scheduler().scheduleWithFixedDelay(this::runCatchUp, interval, interval, TimeUnit.MILLISECONDS);
+            }
+        } else if (config.getBackupPath() != null) {
+            backupManager = new BackupManager(config.getBackupPath(), config.getMaxBackups());
+            if (config.getBackupIntervalSeconds() > 0) {
+                startBackupScheduler(config.getBackupIntervalSeconds());
+            }
+        }
+    }
+
+    // Vectors live in the default column family; vocabulary, term statistics, the terms of
+    // each text document and a follower's replication position beside them
+    private RocksDB openDb() throws RocksDBException {
+        List<ColumnFamilyDescriptor> descriptors = List.of(
+                new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, columnOptions),
+                new ColumnFamilyDescriptor(VOCABULARY_COLUMN, columnOptions),
+                new ColumnFamilyDescriptor(TERM_STATS_COLUMN, termStatsOptions),
+                new ColumnFamilyDescriptor(TEXT_DOCUMENTS_COLUMN, columnOptions),
+                new ColumnFamilyDescriptor(REPLICATION_COLUMN, columnOptions));
+        List<ColumnFamilyHandle> handles = new ArrayList<>();
+        RocksDB opened = config.isSecondary()
+                ? RocksDB.openAsSecondary(dbOptions, config.getDbPath(), config.getSecondaryPath(), descriptors, handles)
+                : RocksDB.open(dbOptions, config.getDbPath(), descriptors, handles);
+        columnHandles = handles;
+        vocabularyColumn = handles.get(1);
+        termStatsColumn = handles.get(2);
+        textDocumentsColumn = handles.get(3);
+        replicationColumn = handles.get(4);
+        return opened;
+    }
+
+    private void closeDb() {
+        for (ColumnFamilyHandle handle : columnHandles) {
+            handle.close();
+        }
+        columnHandles = List.of();
+        db.close();
+    }
+
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "plotarmor-storage-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    private void startBackupScheduler(long intervalSeconds) {
+        scheduler().scheduleWithFixedDelay(() -> {
+            try {
+                BackupInfo info = createIncrementalBackup();
+                log.debug("Created backup {} ({} bytes, {} files)",
+                        info.backupId(), info.size(), info.numberFiles());
+            } catch (Exception e) {
+                log.error("Scheduled backup failed", e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void runCatchUp() {
+        try {
+            catchUpWithPrimary();
+        } catch (Exception e) {
+            catchUpFailures.increment();
+            log.warn("Replica catch-up with primary failed", e);
+        }
+    }
+
+    public void catchUpWithPrimary() {
+        if (!config.isSecondary()) {
+            return;
+        }
+
+        lock.readLock().lock();
+        try {
+            long before = db.getLatestSequenceNumber();
+            db.tryCatchUpWithPrimary();
+            if (db.getLatestSequenceNumber() != before) {
+                recordUnknownChange();
+            }
+            lastCatchUpTime = System.currentTimeMillis();
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to catch up with primary", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Replicas and replication followers only change through their primary or leader
+    public boolean isReadOnly() {
+        return config.isSecondary() || config.isReplicationFollower();
+    }
+
+    public ReplicaMetrics getReplicaMetrics() {
+        ReplicaMetrics metrics = new ReplicaMetrics();
+        lock.readLock().lock();
+        try {
+            metrics.setSequenceNumber(db.getLatestSequenceNumber());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (config.isSecondary()) {
+            // The primary's sequence is not visible from here, so lag is the staleness bound
+            metrics.setLastCatchUpTime(lastCatchUpTime);
+            metrics.setLagMillis(System.currentTimeMillis() - lastCatchUpTime);
+            metrics.setCatchUpFailures(catchUpFailures.sum());
+        }
+        return metrics;
+    }
+
+    private void requireWritable() {
+        requirePrimary();
+        if (config.isReplicationFollower()) {
+            throw new StorageException("Storage follows a replication leader; write to the leader instead");
+        }
+    }
+
+    // Replicated batches and checkpoints still need a database of our own
+    private void requirePrimary() {
+        if (config.isSecondary()) {
+            throw new StorageException("Storage is a read-only replica of " + config.getDbPath());
+        }
     }
 
     public void store(Vector vector) {
+        requireWritable();
         validateVector(vector);
 
         if(vector.getValues().length < 10000)
@@ -78,9 +282,7 @@ public class VectorStorage implements AutoCloseable {
 
         lock.writeLock().lock();
         try {
-            byte[] key = vector.getId().getBytes();
-            byte[] value = objectMapper.writeValueAsBytes(vector);
-            db.put(writeOptions, key, value);
+            write(List.of(vector), null);
         } catch (Exception e) {
             throw new StorageException("Failed to store vector: " + vector.getId(), e);
         } finally {
@@ -88,6 +290,105 @@ public class VectorStorage implements AutoCloseable {
         }
     }
 
+    // Vectors embedded from text, e.g. by TextEmbeddingEngine.embedDocuments: their non-zero
+    // entries count toward the term statistics, and newTerms, the vocabulary indices reserved
+    // for them, are persisted in the same write
+    public void storeText(Vector vector, Map<String, Integer> newTerms) {
+        storeTextBatch(List.of(vector), newTerms);
+    }
+
+    public void storeTextBatch(List<Vector> vectors, Map<String, Integer> newTerms) {
+        Map<String, Integer> terms = newTerms != null ? newTerms : Map.of();
+        if ((vectors == null || vectors.isEmpty()) && terms.isEmpty()) {
+            return;
+        }
+        requireWritable();
+
+        lock.writeLock().lock();
+        try {
+            write(vectors != null ? vectors : List.of(), terms);
+        } catch (Exception e) {
+            throw new StorageException("Failed to store text batch", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!terms.isEmpty()) {
+            synchronized (vocabularyLock) {
+                if (reservedTerms.keySet().removeAll(terms.keySet())) {
+                    vocabularyGeneration.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Called under the write lock. newTerms is null for plain vectors, which never count as
+    // text documents and drop the terms of any text document they replace.
+    private void write(List<Vector> vectors, Map<String, Integer> newTerms) throws Exception {
+        try (WriteBatch batch = new WriteBatch()) {
+            boolean[] replacing = new boolean[vectors.size()];
+            Set<String> batchIds = new HashSet<>();
+            TermStatisticsUpdate update = new TermStatisticsUpdate(db, batch, textDocumentsColumn, DIMENSION);
+            for (int i = 0; i < vectors.size(); i++) {
+                Vector vector = vectors.get(i);
+                validateVector(vector);
+                if(vector.getValues().length < 10000)
+                    addPadding(vector);
+                byte[] key = vector.getId().getBytes();
+                byte[] value = objectMapper.writeValueAsBytes(vector);
+                replacing[i] = !batchIds.add(vector.getId()) || exists(key);
+                if (newTerms != null) {
+                    update.add(vector.getId(), vector.getValues());
+                } else {
+                    update.remove(vector.getId());
+                }
+                batch.put(key, value);
+            }
+            if (newTerms != null) {
+                for (Map.Entry<String, Integer> term : newTerms.entrySet()) {
+                    batch.put(vocabularyColumn, term.getKey().getBytes(StandardCharsets.UTF_8),
+                            ByteBuffer.allocate(Integer.BYTES).putInt(term.getValue()).array());
+                }
+            }
+            update.writeTo(termStatsColumn);
+            db.write(writeOptions, batch);
+            update.applyTo(termStatistics);
+            for (int i = 0; i < vectors.size(); i++) {
+                recordWrite(vectors.get(i), replacing[i]);
+            }
+        }
+    }
+
+    // Called under the write lock; keyMayExist answers most fresh inserts without a read
+    private boolean exists(byte[] key) throws RocksDBException {
+        return db.keyMayExist(key, null) && db.get(key) != null;
+    }
+
+    // Bumped only after the write is visible, so a stamp taken before a scan never outlives it
+    private void recordWrite(Vector vector, boolean replacing) {
+        if (rowCache != null) {
+            rowCache.invalidate(vector.getId());
+        }
+        if (replacing) {
+            generations.recordReplace(vector.getMetadata());
+        } else {
+            generations.recordInsert(vector.getMetadata());
+        }
+    }
+
+    private void recordUnknownChange() {
+        generations.recordUnknownChange();
+        if (rowCache != null) {
+            rowCache.clear();
+        }
+        termStatisticsStale = true;
+        vocabularyStale = true;
+        vocabularyGeneration.incrementAndGet();
+    }
+
+    public long getGeneration(Map<String, String> filter) {
+        return generations.stamp(filter);
+    }
+
     private void addPadding(Vector vector) {
         float[] embedding = new float[10000];
         int index = 0;
@@ -101,22 +402,24 @@ public class VectorStorage implements AutoCloseable {
         vector.setValues(embedding);
     }
 
+    // Completes when the write is durable like store's; fails with the same exceptions
+    public CompletableFuture<Void> storeAsync(Vector vector) {
+        return CompletableFuture.runAsync(() -> store(vector), asyncExecutor);
+    }
+
+    public CompletableFuture<Void> storeBatchAsync(List<Vector> vectors) {
+        return CompletableFuture.runAsync(() -> storeBatch(vectors), asyncExecutor);
+    }
+
     public void storeBatch(List<Vector> vectors) {
         if (vectors == null || vectors.isEmpty()) {
             return;
         }
+        requireWritable();
 
         lock.writeLock().lock();
-        try (WriteBatch batch = new WriteBatch()) {
-            for (Vector vector : vectors) {
-                validateVector(vector);
-                if(vector.getValues().length < 10000)
-                    addPadding(vector);
-                byte[] key = vector.getId().getBytes();
-                byte[] value = objectMapper.writeValueAsBytes(vector);
-                batch.put(key, value);
-            }
-            db.write(writeOptions, batch);
+        try {
+            write(vectors, null);
         } catch (Exception e) {
             throw new StorageException("Failed to store vector batch", e);
         } finally {
@@ -129,8 +432,14 @@ public class VectorStorage implements AutoCloseable {
             return Optional.empty();
         }
 
+        Vector cached = rowCache != null ? rowCache.get(id) : null;
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+
         lock.readLock().lock();
         try {
+            long stamp = generations.stamp(null);
             byte[] key = id.getBytes();
             byte[] value = db.get(readOptions, key);
 
@@ -138,7 +447,9 @@ public class VectorStorage implements AutoCloseable {
                 return Optional.empty();
             }
 
-            return Optional.of(objectMapper.readValue(value, Vector.class));
+            Vector vector = objectMapper.readValue(value, Vector.class);
+            cacheRow(vector, stamp);
+            return Optional.of(copyOf(vector));
         } catch (Exception e) {
             throw new StorageException("Failed to retrieve vector: " + id, e);
         } finally {
@@ -151,28 +462,236 @@ public class VectorStorage implements AutoCloseable {
             return Collections.emptyList();
         }
 
+        Vector[] found = new Vector[ids.size()];
+        List<Integer> missing = new ArrayList<>();
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < found.length; i++) {
+            // A null id finds nothing, like a missing one
+            if (ids.get(i) == null) {
+                continue;
+            }
+            Vector cached = rowCache != null ? rowCache.get(ids.get(i)) : null;
+            if (cached != null) {
+                found[i] = copyOf(cached);
+            } else {
+                missing.add(i);
+                keys.add(ids.get(i).getBytes());
+            }
+        }
+
         lock.readLock().lock();
         try {
-            List<Vector> results = new ArrayList<>();
-            for (String id : ids) {
-                Optional<Vector> vector = retrieve(id);
-                vector.ifPresent(results::add);
+            if (!keys.isEmpty()) {
+                long stamp = generations.stamp(null);
+                // One multi-get instead of a point lookup per id
+                List<byte[]> values = db.multiGetAsList(readOptions, keys);
+                for (int i = 0; i < values.size(); i++) {
+                    byte[] value = values.get(i);
+                    if (value != null) {
+                        Vector vector = objectMapper.readValue(value, Vector.class);
+                        cacheRow(vector, stamp);
+                        found[missing.get(i)] = copyOf(vector);
+                    }
+                }
+            }
+
+            List<Vector> results = new ArrayList<>(found.length);
+            for (Vector vector : found) {
+                if (vector != null) {
+                    results.add(vector);
+                }
             }
             return results;
+        } catch (Exception e) {
+            throw new StorageException("Failed to retrieve vector batch", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Writers hold the write lock, but replica catch-up only takes the read lock,
+    // so an entry loaded across a catch-up is dropped again
+    private void cacheRow(Vector vector, long stamp) {
+        if (rowCache != null) {
+            rowCache.put(vector.getId(), vector);
+            if (generations.stamp(null) != stamp) {
+                rowCache.invalidate(vector.getId());
+            }
+        }
+    }
+
+    // Vectors are mutable, so callers never see the cached instance
+    private static Vector copyOf(Vector vector) {
+        Map<String, String> metadata = vector.getMetadata();
+        return new Vector(vector.getId(), vector.getValues().clone(),
+                metadata != null ? new HashMap<>(metadata) : null);
+    }
+
+    private static long estimatedBytes(Vector vector) {
+        long bytes = 96 + 2L * vector.getId().length() + 4L * vector.getValues().length;
+        if (vector.getMetadata() != null) {
+            for (Map.Entry<String, String> entry : vector.getMetadata().entrySet()) {
+                bytes += 144 + 2L * entry.getKey().length()
+                        + (entry.getValue() != null ? 2L * entry.getValue().length() : 0);
+            }
+        }
+        return bytes;
+    }
+
+    public TermStatistics getTermStatistics() {
+        if (termStatisticsStale) {
+            reloadTermStatistics();
+        }
+        return termStatistics;
+    }
+
+    // Rebuilds the in-memory counts after changes that bypassed store/delete
+    private synchronized void reloadTermStatistics() {
+        if (!termStatisticsStale) {
+            return;
+        }
+        termStatisticsStale = false;
+        lock.readLock().lock();
+        try (RocksIterator iterator = db.newIterator(termStatsColumn, readOptions)) {
+            termStatistics.reset();
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                byte[] key = iterator.key();
+                long value = TermStatisticsUpdate.decode(iterator.value());
+                if (Arrays.equals(key, TermStatisticsUpdate.DOCUMENT_COUNT_KEY)) {
+                    termStatistics.setDocuments(value);
+                } else if (key.length == Integer.BYTES) {
+                    int index = ByteBuffer.wrap(key).getInt();
+                    if (index >= 0 && index < DIMENSION) {
+                        termStatistics.set(index, value);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            termStatisticsStale = true;
+            throw new StorageException("Failed to load term statistics", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public VocabularyStore getVocabularyStore() {
+        return new VocabularyStore() {
+            @Override
+            public Map<String, Integer> load() {
+                return loadVocabulary();
+            }
+
+            @Override
+            public Integer lookup(String term) {
+                return lookupTermIndex(term);
+            }
+
+            @Override
+            public Map<String, Integer> assign(Collection<String> terms, int limit) {
+                return assignTermIndices(terms, limit);
+            }
+
+            @Override
+            public long generation() {
+                return vocabularyGeneration.get();
+            }
+        };
+    }
+
+    private Map<String, Integer> loadVocabulary() {
+        lock.readLock().lock();
+        try (RocksIterator iterator = db.newIterator(vocabularyColumn, readOptions)) {
+            Map<String, Integer> vocabulary = new HashMap<>();
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                vocabulary.put(new String(iterator.key(), StandardCharsets.UTF_8),
+                        ByteBuffer.wrap(iterator.value()).getInt());
+            }
+            return vocabulary;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Integer lookupTermIndex(String term) {
+        lock.readLock().lock();
+        try {
+            byte[] stored = db.get(vocabularyColumn, readOptions, term.getBytes(StandardCharsets.UTF_8));
+            return stored != null ? ByteBuffer.wrap(stored).getInt() : null;
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to look up vocabulary index for term: " + term, e);
         } finally {
             lock.readLock().unlock();
         }
     }
 
+    // Assignment is serialized here, so every engine over this storage agrees on indices. Nothing
+    // is written: a reserved index becomes durable with the storeTextBatch that carries it.
+    private Map<String, Integer> assignTermIndices(Collection<String> terms, int limit) {
+        List<String> candidates = new ArrayList<>(terms);
+        List<byte[]> keys = new ArrayList<>(candidates.size());
+        for (String term : candidates) {
+            keys.add(term.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // The read lock comes first: writers take vocabularyLock while holding the write lock
+        lock.readLock().lock();
+        try {
+            synchronized (vocabularyLock) {
+                if (vocabularyStale) {
+                    vocabularyStale = false;
+                    reservedTerms.clear();
+                    nextTermIndex = loadVocabulary().values().stream()
+                            .mapToInt(Integer::intValue).max().orElse(-1) + 1;
+                }
+
+                Map<String, Integer> indices = new HashMap<>();
+                List<byte[]> stored = db.multiGetAsList(readOptions,
+                        Collections.nCopies(keys.size(), vocabularyColumn), keys);
+                for (int i = 0; i < candidates.size(); i++) {
+                    String term = candidates.get(i);
+                    if (stored.get(i) != null) {
+                        indices.put(term, ByteBuffer.wrap(stored.get(i)).getInt());
+                    } else if (reservedTerms.containsKey(term)) {
+                        indices.put(term, reservedTerms.get(term));
+                    } else if (!isReadOnly() && nextTermIndex < limit) {
+                        // Replicas and followers only learn terms from the primary or leader
+                        reservedTerms.put(term, nextTermIndex);
+                        indices.put(term, nextTermIndex++);
+                    }
+                }
+                return indices;
+            }
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to assign vocabulary indices", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public CacheMetrics getRowCacheMetrics() {
+        return rowCache != null ? rowCache.getMetrics() : new CacheMetrics();
+    }
+
     public void delete(String id) {
         if (id == null) {
             return;
         }
+        requireWritable();
 
         lock.writeLock().lock();
         try {
-            byte[] key = id.getBytes();
-            db.delete(writeOptions, key);
+            try (WriteBatch batch = new WriteBatch()) {
+                TermStatisticsUpdate update = new TermStatisticsUpdate(db, batch, textDocumentsColumn, DIMENSION);
+                update.remove(id);
+                batch.delete(id.getBytes());
+                update.writeTo(termStatsColumn);
+                db.write(writeOptions, batch);
+                update.applyTo(termStatistics);
+            }
+            if (rowCache != null) {
+                rowCache.invalidate(id);
+            }
+            generations.recordDelete();
         } catch (Exception e) {
             throw new StorageException("Failed to delete vector: " + id, e);
         } finally {
@@ -199,6 +718,34 @@ public class VectorStorage implements AutoCloseable {
         }
     }
 
+    // One iterator pass like scanAll, but vectors are handed to the consumer batchSize at a time
+    // as they are read, so callers can work on a batch while the scan goes on. stop is polled
+    // every 64 vectors; returns false if it ended the scan before the last vector.
+    public boolean scanBatches(int batchSize, BooleanSupplier stop, Consumer<List<Vector>> consumer) {
+        lock.readLock().lock();
+        try (RocksIterator iterator = db.newIterator(readOptions)) {
+            List<Vector> batch = new ArrayList<>(batchSize);
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                if (batch.size() % 64 == 0 && stop.getAsBoolean()) {
+                    return false;
+                }
+                batch.add(objectMapper.readValue(iterator.value(), Vector.class));
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+            return true;
+        } catch (Exception e) {
+            throw new StorageException("Failed to scan vectors", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public List<Vector> scanRange(String startId, String endId, int limit) {
         lock.readLock().lock();
         try (RocksIterator iterator = db.newIterator(readOptions)) {
@@ -229,6 +776,11 @@ public class VectorStorage implements AutoCloseable {
     }
 
     public void createBackup(String checkpointPath) {
+        createCheckpoint(checkpointPath);
+    }
+
+    public long createCheckpoint(String checkpointPath) {
+        requirePrimary();
         lock.readLock().lock();
         try {
             Path path = Path.of(checkpointPath);
@@ -244,6 +796,11 @@ public class VectorStorage implements AutoCloseable {
             try (Checkpoint checkpoint = Checkpoint.create(db)) {
                 checkpoint.createCheckpoint(checkpointPath);
             }
+
+            // The checkpoint may include writes that raced with it, so read its exact sequence back
+            try (RocksDB snapshot = RocksDB.openReadOnly(options, checkpointPath)) {
+                return snapshot.getLatestSequenceNumber();
+            }
         } catch (Exception e) {
             throw new StorageException("Failed to create backup at: " + checkpointPath, e);
         } finally {
@@ -265,10 +822,131 @@ public class VectorStorage implements AutoCloseable {
 
         // Create the backup
         createBackup(backupPath);
+        if (config.getMaxBackups() > 0) {
+            cleanupOldBackups(baseBackupPath, config.getMaxBackups());
+        }
 
         return backupPath;
     }
 
+    public BackupInfo createIncrementalBackup() {
+        BackupManager manager = requireBackupManager();
+        // No storage lock here: the backup engine snapshots live files while writes continue
+        synchronized (manager) {
+            return manager.createBackup(db);
+        }
+    }
+
+    public List<BackupInfo> getBackupInfo() {
+        return requireBackupManager().getBackupInfo();
+    }
+
+    public void restoreLatestBackup() {
+        restoreBackup(manager -> manager.restoreLatest(config.getDbPath()));
+    }
+
+    public void restoreBackup(int backupId) {
+        restoreBackup(manager -> manager.restore(backupId, config.getDbPath()));
+    }
+
+    private void restoreBackup(Consumer<BackupManager> restore) {
+        requireWritable();
+        BackupManager manager = requireBackupManager();
+        lock.writeLock().lock();
+        try {
+            synchronized (manager) {
+                closeDb();
+                try {
+                    restore.accept(manager);
+                } finally {
+                    db = openDb();
+                    recordUnknownChange();
+                }
+            }
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to reopen storage after restore", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getLatestSequenceNumber() {
+        lock.readLock().lock();
+        try {
+            return db.getLatestSequenceNumber();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public TransactionLogIterator getUpdatesSince(long sequenceNumber) {
+        lock.readLock().lock();
+        try {
+            return db.getUpdatesSince(sequenceNumber);
+        } catch (RocksDBException e) {
+            throw new StorageException("Write log is not available from sequence " + sequenceNumber, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The sequence to resume from is written with the batch itself, so a crash can never leave
+    // a batch applied but not recorded and replay it; replaying merges would count twice
+    public void applyReplicatedBatch(byte[] data, long nextSequence) {
+        requirePrimary();
+        lock.writeLock().lock();
+        try (WriteBatch batch = new WriteBatch(data)) {
+            batch.put(replicationColumn, REPLICATED_SEQUENCE_KEY,
+                    ByteBuffer.allocate(Long.BYTES).putLong(nextSequence).array());
+            db.write(writeOptions, batch);
+            recordUnknownChange();
+        } catch (Exception e) {
+            throw new StorageException("Failed to apply replicated batch", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 0 until a replicated batch has been applied
+    public long getReplicatedSequence() {
+        lock.readLock().lock();
+        try {
+            byte[] value = db.get(replicationColumn, readOptions, REPLICATED_SEQUENCE_KEY);
+            return value != null ? ByteBuffer.wrap(value).getLong() : 0;
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to read replicated sequence", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void replaceWith(Path checkpointDir) {
+        requirePrimary();
+        lock.writeLock().lock();
+        try {
+            closeDb();
+            try {
+                Path dbPath = Path.of(config.getDbPath());
+                deleteDirectory(dbPath);
+                Files.move(checkpointDir, dbPath);
+            } finally {
+                db = openDb();
+                recordUnknownChange();
+            }
+        } catch (Exception e) {
+            throw new StorageException("Failed to replace storage with checkpoint: " + checkpointDir, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private BackupManager requireBackupManager() {
+        if (backupManager == null) {
+            throw new StorageException("Backups are not configured: no backup path set");
+        }
+        return backupManager;
+    }
+
     private void deleteDirectory(Path path) throws IOException {
         if (!Files.exists(path)) {
             return;
@@ -322,6 +1000,15 @@ public class VectorStorage implements AutoCloseable {
         }
     }
 
+    // RocksDB's estimate of the stored vector count; cheap, but can be off after deletes
+    public long getApproximateCount() {
+        try {
+            return db.getLongProperty("rocksdb.estimate-num-keys");
+        } catch (RocksDBException e) {
+            throw new StorageException("Failed to estimate vector count", e);
+        }
+    }
+
     public Map<String, String> getStatistics() throws Exception {
         return Map.of(
                 "estimateNumKeys", String.valueOf(db.getLongProperty("rocksdb.estimate-num-keys")),
@@ -334,8 +1021,27 @@ public class VectorStorage implements AutoCloseable {
 
     @Override
     public void close() {
+        // Writes already accepted finish before the database goes away
+        asyncExecutor.shutdown();
+        try {
+            asyncExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
         lock.writeLock().lock();
         try {
+            if (backupManager != null) {
+                backupManager.close();
+            }
             if (writeOptions != null) {
                 writeOptions.close();
             }
@@ -343,8 +1049,11 @@ public class VectorStorage implements AutoCloseable {
                 readOptions.close();
             }
             if (db != null) {
-                db.close();
+                closeDb();
             }
+            columnOptions.close();
+            termStatsOptions.close();
+            dbOptions.close();
             if (options != null) {
                 options.close();
             }
@@ -0,0 +1,62 @@
+package com.plotarmordb.core.storage;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Monotonic write counters used to validate cached reads in O(1).
+// Every counter only grows, so the sum over the counters a query depends on changes
+// exactly when one of them is bumped, and that sum serves as the query's stamp.
+class WriteGenerations {
+    private static final int PAIR_SLOTS = 4096;
+
+    // Bumped by every write; unfiltered queries depend on it alone
+    private final AtomicLong global = new AtomicLong();
+    // Bumped when a vector is removed or replaced, since its old metadata is not looked up
+    private final AtomicLong removals = new AtomicLong();
+    // Striped per metadata key=value pair; collisions only cost extra invalidations
+    private final AtomicLongArray pairs = new AtomicLongArray(PAIR_SLOTS);
+
+    void recordInsert(Map<String, String> metadata) {
+        if (metadata != null) {
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                pairs.incrementAndGet(slot(entry.getKey(), entry.getValue()));
+            }
+        }
+        global.incrementAndGet();
+    }
+
+    void recordReplace(Map<String, String> metadata) {
+        removals.incrementAndGet();
+        recordInsert(metadata);
+    }
+
+    void recordDelete() {
+        removals.incrementAndGet();
+        global.incrementAndGet();
+    }
+
+    // Changes whose contents are not inspected (replicated batches, restores) invalidate everything
+    void recordUnknownChange() {
+        removals.incrementAndGet();
+        global.incrementAndGet();
+    }
+
+    long stamp(Map<String, String> filter) {
+        if (filter == null || filter.isEmpty()) {
+            return global.get();
+        }
+
+        long stamp = removals.get();
+        for (Map.Entry<String, String> entry : filter.entrySet()) {
+            stamp += pairs.get(slot(entry.getKey(), entry.getValue()));
+        }
+        return stamp;
+    }
+
+    private static int slot(String key, String value) {
+        int hash = 31 * (key == null ? 0 : key.hashCode()) + (value == null ? 0 : value.hashCode());
+        hash ^= hash >>> 16;
+        return hash & (PAIR_SLOTS - 1);
+    }
+}
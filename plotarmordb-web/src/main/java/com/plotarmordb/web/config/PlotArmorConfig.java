@@ -10,6 +10,9 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 
 import lombok.Data;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @EnableConfigurationProperties
 public class PlotArmorConfig {
@@ -35,6 +38,10 @@ public class PlotArmorConfig {
         private CacheConfig cache = new CacheConfig();
         private EmbeddingConfig embedding = new EmbeddingConfig();
         private SearchConfig search = new SearchConfig();
+        private ReplicaConfig replica = new ReplicaConfig();
+        private CoordinatorConfig coordinator = new CoordinatorConfig();
+        private IngestConfig ingest = new IngestConfig();
+        private LexicalConfig lexical = new LexicalConfig();
 
         @Data
         public static class DbConfig {
@@ -54,6 +61,48 @@ public class PlotArmorConfig {
         @Data
         public static class SearchConfig {
             private int batchSize = 1000;
+            // Searches that run past this return what they scored so far; 0 disables the deadline
+            private long timeoutMs = 0;
+            // Measures scan speed and sizes chunks to take targetBatchMs each; batchSize then no
+            // longer caps the chunk size
+            private boolean adaptiveBatchSize = false;
+            private double targetBatchMs = 2.0;
+            // Upper bound of the adaptive limit on scans running at once; 0 disables admission control
+            private int maxConcurrentSearches = 0;
+            // Searches waiting for a slot beyond which new ones get 429, and how long one may wait
+            private int maxQueuedSearches = 100;
+            private long queueTimeoutMs = 1000;
+        }
+
+        @Data
+        public static class ReplicaConfig {
+            private boolean enabled = false;
+            private String secondaryPath = "plotarmor-replica";
+            private long catchUpIntervalMs = 1000;
+        }
+
+        @Data
+        public static class IngestConfig {
+            // Streamed documents are embedded and written this many at a time
+            private int chunkSize = 1000;
+        }
+
+        @Data
+        public static class LexicalConfig {
+            // BM25 term frequency saturation and document length normalization
+            private double k1 = 1.2;
+            private double b = 0.75;
+            // Reciprocal rank fusion constant and how deep each ranking is read in hybrid mode
+            private int rrfK = 60;
+            private int hybridCandidates = 100;
+        }
+
+        @Data
+        public static class CoordinatorConfig {
+            private boolean enabled = false;
+            private List<String> nodes = new ArrayList<>();
+            private String shardMapFile;
+            private long nodeTimeoutMs = 2000;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.plotarmordb.web.controller;
+
+import com.plotarmordb.web.model.*;
+import com.plotarmordb.web.service.CoordinatorService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/vectors")
+@ConditionalOnProperty(name = "plotarmor.coordinator.enabled", havingValue = "true")
+public class CoordinatorController {
+
+    @Autowired
+    private CoordinatorService coordinator;
+
+    @PostMapping
+    public ResponseEntity<Vector> createVector(@RequestBody Vector vector) {
+        try {
+            if (vector.getId() == null) {
+                vector.setId(UUID.randomUUID().toString());
+            }
+            return ResponseEntity.ok(coordinator.store(vector));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Vector> getVector(@PathVariable String id) {
+        try {
+            return coordinator.retrieve(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteVector(@PathVariable String id) {
+        try {
+            coordinator.delete(id);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/search")
+    public ResponseEntity<List<SearchResult>> search(@RequestBody SearchRequest request) {
+        try {
+            return withShardHeaders(coordinator.search(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/text")
+    public ResponseEntity<Vector> createVectorFromText(@RequestBody TextRequest request) {
+        try {
+            // The id is fixed here so later reads route to the node that embedded the text
+            if (request.getId() == null) {
+                request.setId(UUID.randomUUID().toString());
+            }
+            return ResponseEntity.ok(coordinator.storeText(request));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/search/text")
+    public ResponseEntity<List<SearchResult>> searchByText(@RequestBody TextSearchRequest request) {
+        try {
+            return withShardHeaders(coordinator.searchByText(request));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/shards")
+    public ResponseEntity<List<String>> shards() {
+        return ResponseEntity.ok(coordinator.getNodes());
+    }
+
+    private ResponseEntity<List<SearchResult>> withShardHeaders(DistributedSearchResult result) {
+        if (result.getShardsResponded() == 0) {
+            return ResponseEntity.status(503).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-PlotArmor-Shards-Queried", String.valueOf(result.getShardsQueried()))
+                .header("X-PlotArmor-Shards-Responded", String.valueOf(result.getShardsResponded()))
+                .header("X-PlotArmor-Partial-Results", String.valueOf(result.isPartial()))
+                .header("X-PlotArmor-Coverage", String.valueOf(result.getCoverage()))
+                .body(result.getResults());
+    }
+}
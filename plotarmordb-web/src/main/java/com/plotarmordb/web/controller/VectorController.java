@@ -1,19 +1,42 @@
 package com.plotarmordb.web.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plotarmordb.web.config.PlotArmorConfig.PlotArmorProperties;
 import com.plotarmordb.web.model.*;
+import com.plotarmordb.web.service.SearchRejectedException;
 import com.plotarmordb.web.service.TextEmbeddingService;
 import com.plotarmordb.web.service.VectorSearchService;
 import com.plotarmordb.web.storage.VectorStorage;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/vectors")
+@ConditionalOnProperty(name = "plotarmor.coordinator.enabled", havingValue = "false", matchIfMissing = true)
 public class VectorController {
 
     @Autowired
@@ -25,8 +48,17 @@ public class VectorController {
     @Autowired
     private TextEmbeddingService textEmbeddingService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlotArmorProperties properties;
+
     @PostMapping
-    public ResponseEntity<Vector> createVector(@RequestBody Vector vector) {
+    public CompletableFuture<ResponseEntity<Vector>> createVector(@RequestBody Vector vector) {
+        if (storage.isReadOnly()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        }
         try {
             if (vector.getId() == null) {
                 vector.setId(UUID.randomUUID().toString());
@@ -35,11 +67,12 @@ public class VectorController {
             // Update vector with padded values
             vector.setValues(textEmbeddingService.getPaddedValues(vector.getValues()));
 
-            // Store the padded vector
-            storage.store(vector);
-            return ResponseEntity.ok(vector);
+            // Store the padded vector; the request thread is free while RocksDB writes
+            return storage.storeAsync(vector)
+                    .thenApply(stored -> ResponseEntity.ok(vector))
+                    .exceptionally(e -> ResponseEntity.internalServerError().build());
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            return CompletableFuture.completedFuture(ResponseEntity.internalServerError().build());
         }
     }
 
@@ -56,6 +89,9 @@ public class VectorController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteVector(@PathVariable String id) {
+        if (storage.isReadOnly()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         try {
             storage.delete(id);
             return ResponseEntity.ok().build();
@@ -65,33 +101,94 @@ public class VectorController {
     }
 
     @PostMapping("/search")
-    public ResponseEntity<List<SearchResult>> search(@RequestBody SearchRequest request) {
+    public CompletableFuture<ResponseEntity<List<SearchResult>>> search(@RequestBody SearchRequest request) {
         try {
-            List<SearchResult> results = searchService.search(
-                    textEmbeddingService.getPaddedValues(request.getQueryVector()),
-                    request.getTopK(),
-                    request.getFilter()
-            );
-            return ResponseEntity.ok(results);
+            request.setQueryVector(textEmbeddingService.getPaddedValues(request.getQueryVector()));
+            return searchService.searchAsync(request)
+                    // Same headers the coordinator uses, so it can add up coverage over the nodes
+                    .thenApply(response -> ResponseEntity.ok()
+                            .header("X-PlotArmor-Partial-Results", String.valueOf(response.isPartial()))
+                            .header("X-PlotArmor-Coverage", String.valueOf(response.getCoverage()))
+                            .header("X-PlotArmor-Scanned", String.valueOf(response.getScanned()))
+                            .header("X-PlotArmor-Total", String.valueOf(response.getTotal()))
+                            .body(response.getResults()))
+                    .exceptionally(VectorController::searchFailure);
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            return CompletableFuture.completedFuture(searchFailure(e));
+        }
+    }
+
+    // One SearchResult per line, flushed as the search settles it, then a last line with the
+    // coverage. A ranked search keeps only ids and scores while it scans, so its results arrive
+    // best first once the scan ends; first-match results arrive as chunks are scored. Failures
+    // before the first line get the same statuses as /search; after it the stream just ends
+    // without the coverage line.
+    @PostMapping(value = "/search/stream", produces = "application/x-ndjson")
+    public void searchStream(@RequestBody SearchRequest request, HttpServletResponse httpResponse)
+            throws IOException {
+        try {
+            request.setQueryVector(textEmbeddingService.getPaddedValues(request.getQueryVector()));
+            httpResponse.setContentType("application/x-ndjson");
+            OutputStream out = httpResponse.getOutputStream();
+            SearchResponse response = searchService.searchStream(request, result -> writeLine(out, result));
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("partial", response.isPartial());
+            summary.put("coverage", response.getCoverage());
+            summary.put("scanned", response.getScanned());
+            summary.put("total", response.getTotal());
+            writeLine(out, summary);
+        } catch (Exception e) {
+            if (httpResponse.isCommitted()) {
+                throw e;
+            }
+            ResponseEntity<Void> failure = searchFailure(e);
+            httpResponse.reset();
+            httpResponse.setStatus(failure.getStatusCode().value());
+            failure.getHeaders().forEach((name, values) -> values.forEach(value -> httpResponse.addHeader(name, value)));
+        }
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Search errors the same way whether they happened before or during the async part
+    private static <T> ResponseEntity<T> searchFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof SearchRejectedException) {
+            // Saturated: turned away before scanning, so retrying shortly is cheap
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().build();
         }
+        return ResponseEntity.internalServerError().build();
     }
 
     @PostMapping("/text")
     public ResponseEntity<Vector> createVectorFromText(@RequestBody TextRequest request) {
+        if (storage.isReadOnly()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         try {
             // Generate embedding from text
-            float[] embedding = textEmbeddingService.generateEmbedding(request.getText());
+            List<String> tokens = textEmbeddingService.tokenize(request.getText());
+            float[] embedding = textEmbeddingService.generateEmbeddingFromTokens(tokens);
 
             // Create new vector with generated embedding
             Vector vector = new Vector();
-            vector.setId(UUID.randomUUID().toString());
+            vector.setId(request.getId() != null ? request.getId() : UUID.randomUUID().toString());
             vector.setValues(embedding);
             vector.setMetadata(request.getMetadata());
 
-            // Store the vector
-            storage.store(vector);
+            // Store the vector and index its text
+            storage.storeText(vector, tokens);
 
             return ResponseEntity.ok(vector);
         } catch (Exception e) {
@@ -99,11 +196,93 @@ public class VectorController {
         }
     }
 
+    @PostMapping("/text/batch")
+    public ResponseEntity<Map<String, Object>> createVectorsFromText(@RequestBody List<TextRequest> requests) {
+        if (storage.isReadOnly()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (requests.stream().anyMatch(request -> request == null || request.getText() == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<String> ids = embedAndStore(requests);
+            return ResponseEntity.ok(Map.of("stored", ids.size(), "ids", ids));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // One TextRequest per line; documents are embedded and written chunk by chunk,
+    // so the whole body is never held in memory
+    @PostMapping(value = "/text/stream", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<Map<String, Object>> streamVectorsFromText(HttpServletRequest httpRequest) {
+        if (storage.isReadOnly()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        int chunkSize = Math.max(1, properties.getIngest().getChunkSize());
+        long stored = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(httpRequest.getInputStream(), StandardCharsets.UTF_8))) {
+            List<TextRequest> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                TextRequest request = objectMapper.readValue(line, TextRequest.class);
+                if (request.getText() == null) {
+                    // Earlier chunks are already stored; report how far we got
+                    return ResponseEntity.badRequest().body(Map.of("stored", stored));
+                }
+                chunk.add(request);
+                if (chunk.size() == chunkSize) {
+                    stored += embedAndStore(chunk).size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                stored += embedAndStore(chunk).size();
+            }
+            return ResponseEntity.ok(Map.of("stored", stored));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("stored", stored));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("stored", stored));
+        }
+    }
+
+    private List<String> embedAndStore(List<TextRequest> requests) throws Exception {
+        List<List<String>> tokens = requests.parallelStream()
+                .map(request -> textEmbeddingService.tokenize(request.getText()))
+                .collect(Collectors.toList());
+        List<float[]> embeddings = textEmbeddingService.generateEmbeddingsFromTokens(tokens);
+
+        List<Vector> vectors = new ArrayList<>(requests.size());
+        List<String> ids = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TextRequest request = requests.get(i);
+            Vector vector = new Vector();
+            vector.setId(request.getId() != null ? request.getId() : UUID.randomUUID().toString());
+            vector.setValues(embeddings.get(i));
+            vector.setMetadata(request.getMetadata());
+            vectors.add(vector);
+            ids.add(vector.getId());
+        }
+        storage.storeTextBatch(vectors, tokens);
+        return ids;
+    }
+
     @PostMapping("/search/text")
-    public ResponseEntity<List<SearchResult>> searchByText(@RequestBody TextSearchRequest request) {
+    public CompletableFuture<ResponseEntity<List<SearchResult>>> searchByText(@RequestBody TextSearchRequest request) {
+        return searchService.searchByTextAsync(request)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(VectorController::searchFailure);
+    }
+
+    @GetMapping("/replica")
+    public ResponseEntity<Map<String, Object>> replicaStatus() {
         try {
-            List<SearchResult> results = searchService.searchByText(request);
-            return ResponseEntity.ok(results);
+            return ResponseEntity.ok(storage.getReplicaStatus());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
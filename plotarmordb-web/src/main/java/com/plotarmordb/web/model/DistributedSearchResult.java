@@ -0,0 +1,33 @@
+package com.plotarmordb.web.model;
+
+import java.util.List;
+
+public class DistributedSearchResult {
+    private final List<SearchResult> results;
+    private final int shardsQueried;
+    private final List<String> failedShards;
+    // Vectors the answering shards scanned and set out to scan; 0 when none reported it
+    private final long scanned;
+    private final long total;
+
+    public DistributedSearchResult(List<SearchResult> results, int shardsQueried, List<String> failedShards) {
+        this(results, shardsQueried, failedShards, 0, 0);
+    }
+
+    public DistributedSearchResult(List<SearchResult> results, int shardsQueried, List<String> failedShards,
+                                   long scanned, long total) {
+        this.results = results;
+        this.shardsQueried = shardsQueried;
+        this.failedShards = failedShards;
+        this.scanned = scanned;
+        this.total = total;
+    }
+
+    public List<SearchResult> getResults() { return results; }
+    public int getShardsQueried() { return shardsQueried; }
+    public int getShardsResponded() { return shardsQueried - failedShards.size(); }
+    public List<String> getFailedShards() { return failedShards; }
+    // Over the shards that answered; failed shards show up in getShardsResponded instead
+    public double getCoverage() { return total == 0 ? 1.0 : (double) scanned / total; }
+    public boolean isPartial() { return !failedShards.isEmpty() || scanned < total; }
+}
@@ -0,0 +1,21 @@
+package com.plotarmordb.web.model;
+
+// Order in which queued searches are admitted; lower classes may only fill part of the queue,
+// so a backlog of LOW searches cannot crowd out HIGH ones
+public enum SearchPriority {
+    HIGH,
+    NORMAL,
+    LOW;
+
+    // Null means NORMAL; anything unknown is a client error
+    public static SearchPriority parse(String value) {
+        if (value == null) {
+            return NORMAL;
+        }
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown search priority: " + value);
+        }
+    }
+}
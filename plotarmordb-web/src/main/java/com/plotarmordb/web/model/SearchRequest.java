@@ -6,6 +6,17 @@ public class SearchRequest {
     private float[] queryVector;
     private int topK;
     private Map<String, String> filter;
+    // Results below this similarity are dropped; null keeps everything
+    private Double minSimilarity;
+    // Caps the number of results alongside topK; 0 means no extra cap
+    private int maxResults;
+    // Return the first matches at or above minSimilarity in storage order, stopping the scan
+    // as soon as enough are found, instead of ranking every candidate
+    private boolean firstMatches;
+    // Overrides plotarmor.search.timeout-ms for this query; 0 means no deadline
+    private Long timeoutMillis;
+    // Admission order under load: "high", "normal" (default) or "low"
+    private String priority;
 
     public float[] getQueryVector() { return queryVector; }
     public void setQueryVector(float[] queryVector) { this.queryVector = queryVector; }
@@ -15,4 +26,34 @@ public class SearchRequest {
 
     public Map<String, String> getFilter() { return filter; }
     public void setFilter(Map<String, String> filter) { this.filter = filter; }
-}
\ No newline at end of file
+
+    public Double getMinSimilarity() { return minSimilarity; }
+    public void setMinSimilarity(Double minSimilarity) { this.minSimilarity = minSimilarity; }
+
+    public int getMaxResults() { return maxResults; }
+    public void setMaxResults(int maxResults) { this.maxResults = maxResults; }
+
+    public boolean isFirstMatches() { return firstMatches; }
+    public void setFirstMatches(boolean firstMatches) { this.firstMatches = firstMatches; }
+
+    public Long getTimeoutMillis() { return timeoutMillis; }
+    public void setTimeoutMillis(Long timeoutMillis) { this.timeoutMillis = timeoutMillis; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+
+    // The smaller of topK and maxResults that is set. A threshold search may leave both at 0
+    // to get every match; without a threshold one of them is needed.
+    public int resultLimit() {
+        if (topK > 0 && maxResults > 0) {
+            return Math.min(topK, maxResults);
+        }
+        if (topK > 0 || maxResults > 0) {
+            return Math.max(topK, maxResults);
+        }
+        if (minSimilarity != null) {
+            return Integer.MAX_VALUE;
+        }
+        throw new IllegalArgumentException("Search needs a topK, a maxResults or a minSimilarity");
+    }
+}
@@ -0,0 +1,25 @@
+package com.plotarmordb.web.model;
+
+import java.util.List;
+
+public class SearchResponse {
+    private final List<SearchResult> results;
+    private final long scanned;
+    private final long total;
+
+    // scanned counts the vectors this search looked at, total the ones it set out to; both are 0
+    // when the answer came from a cache
+    public SearchResponse(List<SearchResult> results, long scanned, long total) {
+        this.results = results;
+        this.scanned = scanned;
+        this.total = total;
+    }
+
+    public List<SearchResult> getResults() { return results; }
+    public long getScanned() { return scanned; }
+    public long getTotal() { return total; }
+
+    public double getCoverage() { return total == 0 ? 1.0 : (double) scanned / total; }
+    // True when the deadline stopped the scan early
+    public boolean isPartial() { return scanned < total; }
+}
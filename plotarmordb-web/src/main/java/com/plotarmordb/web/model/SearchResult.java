@@ -1,10 +1,15 @@
 package com.plotarmordb.web.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class SearchResult {
     private Vector vector;
     private double similarity;
 
-    public SearchResult(Vector vector, double similarity) {
+    @JsonCreator
+    public SearchResult(@JsonProperty("vector") Vector vector,
+                        @JsonProperty("similarity") double similarity) {
         this.vector = vector;
         this.similarity = similarity;
     }
@@ -3,9 +3,13 @@ package com.plotarmordb.web.model;
 import java.util.Map;
 
 public class TextRequest {
+    private String id;
     private String text;
     private Map<String, String> metadata;
 
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
     public String getText() { return text; }
     public void setText(String text) { this.text = text; }
 
@@ -6,6 +6,10 @@ public class TextSearchRequest {
     private String query;
     private int topK;
     private Map<String, String> filter;
+    // "vector" (default), "lexical" for BM25 only, or "hybrid" to fuse both rankings
+    private String mode;
+    // Admission order under load: "high", "normal" (default) or "low"
+    private String priority;
 
     // Getters and setters
     public String getQuery() { return query; }
@@ -16,4 +20,10 @@ public class TextSearchRequest {
 
     public Map<String, String> getFilter() { return filter; }
     public void setFilter(Map<String, String> filter) { this.filter = filter; }
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+package com.plotarmordb.web.service;
+
+import com.plotarmordb.web.config.PlotArmorConfig.PlotArmorProperties;
+import com.plotarmordb.web.model.SearchPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounds how many scans run at once, so that under a spike some searches finish on time and the
+// rest get a fast 429 instead of every scan slowing down together. The limit adapts AIMD-style
+// to scan latency per scanned vector: a full scan slower than LATENCY_TOLERANCE times the no-load
+// latency, or a scan cut short by its deadline, shrinks the limit by BACKOFF, once per round
+// rather than once per slow scan; a scan that finishes while the limit was in use grows it by
+// 1/limit, about one slot per round.
+// Searches over the limit wait in a bounded queue, highest priority first.
+@Component
+public class AdmissionController {
+    private static final double BACKOFF = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    // How fast the no-load latency estimate follows slower scans, e.g. as the collection grows
+    private static final double BASELINE_DRIFT = 0.01;
+    private static final int MIN_LIMIT = 1;
+
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final MeterRegistry registry;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<ArrayDeque<Waiter>> queues = new ArrayList<>();
+
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int queued;
+    private double baselineNanosPerVector;
+    private long lastBackoffNanos;
+
+    public AdmissionController(PlotArmorProperties properties, MeterRegistry registry) {
+        PlotArmorProperties.SearchConfig config = properties.getSearch();
+        this.maxLimit = config.getMaxConcurrentSearches();
+        this.maxQueued = Math.max(0, config.getMaxQueuedSearches());
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getQueueTimeoutMs());
+        this.registry = registry;
+        this.limit = Math.max(MIN_LIMIT, Math.min(maxLimit, Runtime.getRuntime().availableProcessors()));
+        this.lastBackoffNanos = System.nanoTime();
+        for (int i = 0; i < SearchPriority.values().length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+
+        if (isEnabled()) {
+            Gauge.builder("plotarmor.search.admission.limit", () -> (int) limit)
+                    .description("Scans currently allowed to run at once")
+                    .register(registry);
+            Gauge.builder("plotarmor.search.admission.in.flight", () -> inFlight)
+                    .description("Scans running")
+                    .register(registry);
+            Gauge.builder("plotarmor.search.admission.queue.depth", () -> queued)
+                    .description("Searches waiting for a slot")
+                    .register(registry);
+        }
+    }
+
+    boolean isEnabled() {
+        return maxLimit > 0;
+    }
+
+    // Blocks until the scan may run; the permit must be closed when the scan is done
+    Permit acquire(SearchPriority priority) {
+        if (!isEnabled()) {
+            return new Permit();
+        }
+        lock.lock();
+        try {
+            if (queued == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return admitted(priority);
+            }
+            if (queued >= queueShare(priority)) {
+                throw rejected(priority, "queue_full", "Search queue is full");
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues.get(priority.ordinal()).addLast(waiter);
+            queued++;
+            long remaining = queueTimeoutNanos;
+            try {
+                while (!waiter.admitted) {
+                    if (remaining <= 0) {
+                        queues.get(priority.ordinal()).remove(waiter);
+                        queued--;
+                        throw rejected(priority, "timeout", "Search timed out waiting for a slot");
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!waiter.admitted) {
+                    queues.get(priority.ordinal()).remove(waiter);
+                    queued--;
+                    throw rejected(priority, "interrupted", "Interrupted waiting for a slot");
+                }
+            }
+            return admitted(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit admitted(SearchPriority priority) {
+        registry.counter("plotarmor.search.admission.admitted", "priority", priority.name().toLowerCase())
+                .increment();
+        return new Permit();
+    }
+
+    private SearchRejectedException rejected(SearchPriority priority, String reason, String message) {
+        registry.counter("plotarmor.search.admission.rejected", "priority", priority.name().toLowerCase(),
+                "reason", reason).increment();
+        return new SearchRejectedException(message);
+    }
+
+    // Lower classes may only fill part of the queue, leaving the rest to higher ones
+    private int queueShare(SearchPriority priority) {
+        switch (priority) {
+            case HIGH:
+                return maxQueued;
+            case NORMAL:
+                return maxQueued * 3 / 4;
+            default:
+                return maxQueued / 2;
+        }
+    }
+
+    private void release(Permit permit) {
+        long latency = System.nanoTime() - permit.startNanos;
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit || queued > 0;
+            inFlight--;
+
+            // Only full scans say how fast a vector is scanned; first-match and partial scans stop
+            // early and would set the baseline from their fixed costs alone
+            boolean slow = false;
+            if (permit.scanned > 0) {
+                double nanosPerVector = (double) latency / permit.scanned;
+                if (baselineNanosPerVector == 0 || nanosPerVector < baselineNanosPerVector) {
+                    baselineNanosPerVector = nanosPerVector;
+                } else {
+                    baselineNanosPerVector += BASELINE_DRIFT * (nanosPerVector - baselineNanosPerVector);
+                }
+                slow = nanosPerVector > baselineNanosPerVector * LATENCY_TOLERANCE;
+            }
+            if (permit.overloaded || slow) {
+                // Scans admitted before the last backoff already ran under the higher limit
+                if (permit.startNanos - lastBackoffNanos > 0) {
+                    limit = Math.max(MIN_LIMIT, limit * BACKOFF);
+                    lastBackoffNanos = System.nanoTime();
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+
+            // Hand freed slots straight to waiters, highest priority first
+            while (queued > 0 && inFlight < (int) limit) {
+                for (ArrayDeque<Waiter> queue : queues) {
+                    Waiter waiter = queue.pollFirst();
+                    if (waiter != null) {
+                        queued--;
+                        inFlight++;
+                        waiter.admitted = true;
+                        waiter.condition.signal();
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean admitted;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    final class Permit implements AutoCloseable {
+        private final long startNanos = System.nanoTime();
+        private boolean overloaded;
+        private long scanned;
+
+        // The scan was cut short by its deadline, which counts as a sign of overload
+        void markOverloaded() {
+            overloaded = true;
+        }
+
+        // The scan covered the whole collection, scoring this many vectors (times queries, for a
+        // batch); scans that never call this leave the latency baseline alone
+        void recordFullScan(long vectors) {
+            scanned = vectors;
+        }
+
+        @Override
+        public void close() {
+            if (isEnabled()) {
+                release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.plotarmordb.web.service;
+
+import com.plotarmordb.web.config.PlotArmorConfig.PlotArmorProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Picks vectors per scan chunk. By default the size follows from the dimension alone and is
+// capped at plotarmor.search.batch-size. In adaptive mode every scored chunk reports how long it
+// took and chunks are sized to take target-batch-ms at the measured speed. Speed is kept per
+// vector element, so a measurement at one dimension still gives a good first guess at another.
+@Component
+public class BatchSizeTuner {
+    // Weight of the newest chunk in the moving averages
+    private static final double SMOOTHING = 0.2;
+    private static final int MAX_ADAPTIVE_CHUNK_SIZE = 1 << 16;
+
+    private final ScanPool scanPool = ScanPool.shared();
+    private final PlotArmorProperties.SearchConfig config;
+    private final long targetNanos;
+
+    private double nanosPerElement; // 0 until the first chunk is measured
+    private double averageBatchNanos;
+    private volatile int chunkSize;
+    private volatile int dimension;
+
+    public BatchSizeTuner(PlotArmorProperties properties, MeterRegistry registry) {
+        this.config = properties.getSearch();
+        this.targetNanos = (long) (config.getTargetBatchMs() * TimeUnit.MILLISECONDS.toNanos(1));
+
+        Gauge.builder("plotarmor.search.chunk.size", () -> chunkSize)
+                .description("Vectors per chunk chosen for the latest scan")
+                .register(registry);
+        Gauge.builder("plotarmor.search.chunk.dimension", () -> dimension)
+                .description("Vector dimension the latest chunk size was chosen for")
+                .register(registry);
+        Gauge.builder("plotarmor.search.chunk.duration", this, BatchSizeTuner::getAverageBatchMillis)
+                .description("Moving average of the time to score one chunk")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("plotarmor.search.chunk.vector.time", this, BatchSizeTuner::getNanosPerVector)
+                .description("Moving average of the time to score one vector at the latest dimension")
+                .baseUnit("nanoseconds")
+                .register(registry);
+    }
+
+    int chunkSize(int dimension, long collectionSize) {
+        int size;
+        if (config.isAdaptiveBatchSize()) {
+            double measured;
+            synchronized (this) {
+                measured = nanosPerElement;
+            }
+            long targetFloats = measured > 0 ? (long) (targetNanos / measured) : ScanPool.TARGET_CHUNK_FLOATS;
+            size = scanPool.chunkSize(targetFloats, dimension, collectionSize, MAX_ADAPTIVE_CHUNK_SIZE);
+        } else {
+            size = scanPool.chunkSize(ScanPool.TARGET_CHUNK_FLOATS, dimension, collectionSize,
+                    config.getBatchSize());
+        }
+        this.chunkSize = size;
+        this.dimension = dimension;
+        return size;
+    }
+
+    // Called once per scored chunk; chunks cut short by a deadline report what they scanned
+    void record(int vectors, int dimension, long nanos) {
+        if (vectors <= 0 || dimension <= 0) {
+            return;
+        }
+        double perElement = (double) nanos / ((long) vectors * dimension);
+        synchronized (this) {
+            if (nanosPerElement == 0) {
+                nanosPerElement = perElement;
+                averageBatchNanos = nanos;
+            } else {
+                nanosPerElement += SMOOTHING * (perElement - nanosPerElement);
+                averageBatchNanos += SMOOTHING * (nanos - averageBatchNanos);
+            }
+        }
+    }
+
+    private synchronized double getAverageBatchMillis() {
+        return averageBatchNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private synchronized double getNanosPerVector() {
+        return nanosPerElement * dimension;
+    }
+}
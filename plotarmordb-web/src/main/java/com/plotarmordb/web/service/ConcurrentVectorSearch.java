@@ -1,70 +1,280 @@
 package com.plotarmordb.web.service;
 
+import com.plotarmordb.web.model.SearchResponse;
 import com.plotarmordb.web.model.SearchResult;
 import com.plotarmordb.web.model.Vector;
+import com.plotarmordb.web.storage.VectorStorage;
+
+import org.rocksdb.RocksDBException;
+
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class ConcurrentVectorSearch {
-    private static final int BATCH_SIZE = 1000;
-
-    public static List<SearchResult> searchParallel(List<Vector> vectors, float[] queryVector,
-                                                    int topK, Map<String, String> filter) {
-        // Split vectors into batches
-        List<List<Vector>> batches = splitIntoBatches(vectors, BATCH_SIZE);
+    private static final int CANCELLATION_CHECK_INTERVAL = 64;
+    private static final long CANCELLATION_GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final ScanPool SCAN_POOL = ScanPool.shared();
+    // Ranked results a streamed search reads back from storage at once
+    private static final int STREAM_PAGE_SIZE = 64;
 
+    public static SearchResponse searchParallel(VectorStorage storage, BatchSizeTuner tuner, float[] queryVector,
+                                                int topK, Map<String, String> filter, double minSimilarity,
+                                                SearchDeadline deadline) {
         // Create thread-safe priority queue for results
         PriorityQueue<SearchResult> resultQueue = new PriorityQueue<>(
                 Comparator.comparingDouble(SearchResult::getSimilarity).reversed()
         );
+        BatchResult collected = scan(storage, tuner, queryVector, filter, minSimilarity, deadline, BatchResult::new);
+        resultQueue.addAll(collected.results);
 
-        try {
-            // Process batches with virtual threads
-            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
-                List<Future<List<SearchResult>>> futures = new ArrayList<>();
+        // Return top-K results
+        return new SearchResponse(extractTopK(resultQueue, topK), collected.scanned, collected.total);
+    }
 
-                // Submit batch processing tasks
-                for (List<Vector> batch : batches) {
-                    futures.add(executor.submit(() -> processBatch(batch, queryVector, filter)));
-                }
+    // Ranks like searchParallel but keeps only ids and scores of the running top k, so no
+    // candidate's vector outlives its chunk; emitRanked reads the winners back afterwards
+    static RankedIds rankTopK(VectorStorage storage, BatchSizeTuner tuner, float[] queryVector, int topK,
+                              Map<String, String> filter, double minSimilarity, SearchDeadline deadline) {
+        BatchResult collected = scan(storage, tuner, queryVector, filter, minSimilarity, deadline,
+                () -> new BatchResult(new TopKIds(topK)));
+        return new RankedIds(collected.top != null ? collected.top.sorted() : Collections.emptyList(),
+                new SearchResponse(Collections.emptyList(), collected.scanned, collected.total));
+    }
 
-                // Collect and merge results
-                for (Future<List<SearchResult>> future : futures) {
-                    resultQueue.addAll(future.get());
+    // Hands the ranked results to the consumer best first, read back from storage
+    // STREAM_PAGE_SIZE at a time; ids whose vector was deleted since the scan are skipped
+    static void emitRanked(VectorStorage storage, List<TopKIds.Entry> ranked, Consumer<SearchResult> consumer) {
+        try {
+            for (int from = 0; from < ranked.size(); from += STREAM_PAGE_SIZE) {
+                List<TopKIds.Entry> page = ranked.subList(from, Math.min(from + STREAM_PAGE_SIZE, ranked.size()));
+                List<String> ids = new ArrayList<>(page.size());
+                for (TopKIds.Entry entry : page) {
+                    ids.add(entry.id);
+                }
+                Map<String, Vector> vectors = new HashMap<>();
+                for (Vector vector : storage.retrieveBatch(ids)) {
+                    vectors.put(vector.getId(), vector);
+                }
+                for (TopKIds.Entry entry : page) {
+                    Vector vector = vectors.get(entry.id);
+                    if (vector != null) {
+                        consumer.accept(new SearchResult(vector, entry.score));
+                    }
                 }
             }
+        } catch (RocksDBException | IOException e) {
+            throw new RuntimeException("Reading ranked results failed", e);
+        }
+    }
+
+    static final class RankedIds {
+        private final List<TopKIds.Entry> entries;
+        private final SearchResponse coverage;
 
-            // Return top-K results
-            return extractTopK(resultQueue, topK);
+        RankedIds(List<TopKIds.Entry> entries, SearchResponse coverage) {
+            this.entries = entries;
+            this.coverage = coverage;
+        }
+
+        List<TopKIds.Entry> getEntries() { return entries; }
+        // Results are left empty; they come from emitRanked
+        SearchResponse getCoverage() { return coverage; }
+    }
+
+    // Batches are scored while the scan reads on, each into a fresh BatchResult from newBatch,
+    // and merged into one as they finish so that, e.g., only one TopKIds outlives its chunk.
+    // The deadline bounds the read as well; a scan it cuts short leaves the rest of the
+    // collection uncovered, which is only known approximately.
+    private static BatchResult scan(VectorStorage storage, BatchSizeTuner tuner, float[] queryVector,
+                                    Map<String, String> filter, double minSimilarity, SearchDeadline deadline,
+                                    Supplier<BatchResult> newBatch) {
+        try {
+            List<Future<BatchResult>> futures = new ArrayList<>();
+            ScanPool.Job job = SCAN_POOL.newJob();
+            int chunkSize = tuner.chunkSize(queryVector.length, storage.getApproximateCount());
+            long[] read = new long[1];
+
+            // Submit batch processing tasks as the scan produces them
+            BatchResult merged = new BatchResult();
+            boolean complete = storage.scanBatches(chunkSize, deadline::expired, batch -> {
+                read[0] += batch.size();
+                // Failed chunks are left for collect, which reports them
+                futures.removeIf(future -> {
+                    if (future.state() != Future.State.SUCCESS) {
+                        return false;
+                    }
+                    merged.merge(future.resultNow());
+                    return true;
+                });
+                futures.add(job.submit(() ->
+                        processBatch(batch, tuner, queryVector, filter, minSimilarity, deadline, newBatch.get())));
+            });
+
+            // Collect and merge the rest
+            BatchResult collected = collect(futures, deadline, merged);
+            collected.total = complete ? read[0] : Math.max(read[0] + 1, storage.getApproximateCount());
+            return collected;
         } catch (Exception e) {
             throw new RuntimeException("Parallel search failed", e);
         }
     }
 
-    private static List<List<Vector>> splitIntoBatches(List<Vector> vectors, int batchSize) {
-        List<List<Vector>> batches = new ArrayList<>();
-        for (int i = 0; i < vectors.size(); i += batchSize) {
-            batches.add(vectors.subList(i,
-                    Math.min(i + batchSize, vectors.size())));
+    // Returns the first limit vectors at or above minSimilarity in storage order; the scan and
+    // the workers stop as soon as the shared count is reached instead of scoring the rest
+    public static SearchResponse searchFirstMatches(VectorStorage storage, BatchSizeTuner tuner, float[] queryVector,
+                                                    int limit, double minSimilarity, Map<String, String> filter,
+                                                    SearchDeadline deadline) {
+        List<SearchResult> results = new ArrayList<>();
+        SearchResponse coverage = streamFirstMatches(storage, tuner, queryVector, limit, minSimilarity, filter,
+                deadline, results::add);
+        return new SearchResponse(results, coverage.getScanned(), coverage.getTotal());
+    }
+
+    // searchFirstMatches handing each chunk's matches to the consumer as soon as it and the
+    // chunks before it are scored, while the scan reads on. The response carries coverage only.
+    // The consumer runs on the scanning thread with the storage iterator open, so a slow one
+    // (e.g. a socket) belongs behind a ResultHandoff.
+    public static SearchResponse streamFirstMatches(VectorStorage storage, BatchSizeTuner tuner, float[] queryVector,
+                                                    int limit, double minSimilarity, Map<String, String> filter,
+                                                    SearchDeadline deadline, Consumer<SearchResult> consumer) {
+        AtomicInteger found = new AtomicInteger();
+        List<SearchResult> none = Collections.emptyList();
+        if (limit <= 0) {
+            return new SearchResponse(none, 0, 0);
         }
-        return batches;
+
+        try {
+            Deque<Future<BatchResult>> pending = new ArrayDeque<>();
+            ScanPool.Job job = SCAN_POOL.newJob();
+            int chunkSize = tuner.chunkSize(queryVector.length, storage.getApproximateCount());
+            long[] read = new long[1];
+            long[] scanned = new long[1];
+            boolean complete = storage.scanBatches(chunkSize, () -> found.get() >= limit || deadline.expired(), batch -> {
+                read[0] += batch.size();
+                pending.add(job.submit(() -> {
+                    long start = System.nanoTime();
+                    BatchResult matches = new BatchResult();
+                    for (Vector vector : batch) {
+                        if (found.get() >= limit
+                                || (matches.scanned % CANCELLATION_CHECK_INTERVAL == 0 && deadline.expired())) {
+                            break;
+                        }
+                        matches.scanned++;
+                        if (matchesFilter(vector, filter)) {
+                            double similarity = calculateCosineSimilarity(queryVector, vector.getValues());
+                            if (similarity >= minSimilarity && found.getAndIncrement() < limit) {
+                                matches.results.add(new SearchResult(vector, similarity));
+                            }
+                        }
+                    }
+                    tuner.record(matches.scanned, queryVector.length, System.nanoTime() - start);
+                    return matches;
+                }));
+                // Failed chunks are left for collect, which reports them
+                while (!pending.isEmpty() && pending.peek().state() == Future.State.SUCCESS) {
+                    BatchResult scored = pending.poll().resultNow();
+                    scored.results.forEach(consumer);
+                    scanned[0] += scored.scanned;
+                }
+            });
+
+            BatchResult collected = collect(new ArrayList<>(pending), deadline, new BatchResult());
+            collected.results.forEach(consumer);
+            long totalScanned = scanned[0] + collected.scanned;
+            if (found.get() < limit && (!complete || totalScanned < read[0])) {
+                long total = complete ? read[0] : Math.max(read[0] + 1, storage.getApproximateCount());
+                return new SearchResponse(none, totalScanned, total);
+            }
+            // Stopping once enough matches were found is not a partial answer
+            return new SearchResponse(none, totalScanned, totalScanned);
+        } catch (Exception e) {
+            throw new RuntimeException("First-match search failed", e);
+        }
+    }
+
+    // Waits for the batch tasks until the deadline plus a grace period for them to notice it;
+    // a task still running after that is cancelled and its batch counts as not scanned
+    private static BatchResult collect(List<Future<BatchResult>> futures, SearchDeadline deadline,
+                                       BatchResult collected) throws Exception {
+        for (Future<BatchResult> future : futures) {
+            try {
+                BatchResult batchResult = deadline.isBounded()
+                        ? future.get(Math.max(0, deadline.remainingNanos()) + CANCELLATION_GRACE_NANOS,
+                        TimeUnit.NANOSECONDS)
+                        : future.get();
+                collected.merge(batchResult);
+            } catch (TimeoutException e) {
+                deadline.cancel();
+                future.cancel(true);
+            }
+        }
+        return collected;
     }
 
-    private static List<SearchResult> processBatch(List<Vector> batch,
-                                                   float[] queryVector, Map<String, String> filter) {
-        List<SearchResult> batchResults = new ArrayList<>();
+    // Candidates below minSimilarity are never materialized. The deadline is polled every
+    // CANCELLATION_CHECK_INTERVAL vectors; an expired search keeps what it has scored so far.
+    private static BatchResult processBatch(List<Vector> batch, BatchSizeTuner tuner, float[] queryVector,
+                                            Map<String, String> filter, double minSimilarity, SearchDeadline deadline,
+                                            BatchResult batchResult) {
+        long start = System.nanoTime();
 
         for (Vector vector : batch) {
+            if (batchResult.scanned % CANCELLATION_CHECK_INTERVAL == 0 && deadline.expired()) {
+                break;
+            }
+            batchResult.scanned++;
             if (matchesFilter(vector, filter)) {
                 double similarity = calculateCosineSimilarity(queryVector, vector.getValues());
-                batchResults.add(new SearchResult(vector, similarity));
+                if (similarity >= minSimilarity) {
+                    batchResult.add(vector, similarity);
+                }
+            }
+        }
+
+        tuner.record(batchResult.scanned, queryVector.length, System.nanoTime() - start);
+        return batchResult;
+    }
+
+    // Keeps SearchResults, or with a TopKIds only the ids and scores that rank
+    private static final class BatchResult {
+        private final List<SearchResult> results = new ArrayList<>();
+        private TopKIds top;
+        private int scanned;
+        private long total;
+
+        BatchResult() {
+        }
+
+        BatchResult(TopKIds top) {
+            this.top = top;
+        }
+
+        void add(Vector vector, double similarity) {
+            if (top != null) {
+                top.offer(vector.getId(), similarity);
+            } else {
+                results.add(new SearchResult(vector, similarity));
             }
         }
 
-        return batchResults;
+        void merge(BatchResult other) {
+            results.addAll(other.results);
+            if (other.top != null) {
+                if (top == null) {
+                    top = other.top;
+                } else {
+                    top.addAll(other.top);
+                }
+            }
+            scanned += other.scanned;
+        }
     }
 
-    private static boolean matchesFilter(Vector vector, Map<String, String> filter) {
+    static boolean matchesFilter(Vector vector, Map<String, String> filter) {
         if (filter == null || filter.isEmpty()) {
             return true;
         }
@@ -0,0 +1,202 @@
+package com.plotarmordb.web.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plotarmordb.web.config.PlotArmorConfig.PlotArmorProperties;
+import com.plotarmordb.web.model.*;
+import com.plotarmordb.web.model.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@ConditionalOnProperty(name = "plotarmor.coordinator.enabled", havingValue = "true")
+public class CoordinatorService {
+    private static final Logger log = LoggerFactory.getLogger(CoordinatorService.class);
+    private static final TypeReference<List<SearchResult>> RESULT_LIST = new TypeReference<>() {};
+
+    private final List<String> nodes;
+    private final Duration nodeTimeout;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    public CoordinatorService(PlotArmorProperties properties, ObjectMapper objectMapper) throws IOException {
+        PlotArmorProperties.CoordinatorConfig config = properties.getCoordinator();
+        this.nodes = List.copyOf(loadShardMap(config));
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("Coordinator mode needs at least one node in the shard map");
+        }
+        this.nodeTimeout = Duration.ofMillis(config.getNodeTimeoutMs());
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(nodeTimeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        log.info("Coordinating {} nodes: {}", nodes.size(), nodes);
+    }
+
+    private static List<String> loadShardMap(PlotArmorProperties.CoordinatorConfig config) throws IOException {
+        List<String> entries = new ArrayList<>(config.getNodes());
+        if (config.getShardMapFile() != null && !config.getShardMapFile().isBlank()) {
+            // One node base URL per line, '#' starts a comment
+            for (String line : Files.readAllLines(Path.of(config.getShardMapFile()))) {
+                String entry = line.strip();
+                if (!entry.isEmpty() && !entry.startsWith("#")) {
+                    entries.add(entry);
+                }
+            }
+        }
+
+        List<String> normalized = new ArrayList<>();
+        for (String entry : entries) {
+            entry = entry.strip();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            normalized.add(entry.endsWith("/") ? entry.substring(0, entry.length() - 1) : entry);
+        }
+        return normalized;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public DistributedSearchResult search(SearchRequest request) throws IOException {
+        return fanOut("/vectors/search", request, request.resultLimit());
+    }
+
+    public DistributedSearchResult searchByText(TextSearchRequest request) throws IOException {
+        return fanOut("/vectors/search/text", request, request.getTopK());
+    }
+
+    private DistributedSearchResult fanOut(String path, Object request, int topK) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(request);
+        long deadline = System.nanoTime() + nodeTimeout.toNanos();
+
+        Map<String, CompletableFuture<SearchResponse>> futures = new LinkedHashMap<>();
+        for (String node : nodes) {
+            futures.put(node, httpClient.sendAsync(post(node + path, body), HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(response -> parseResults(node, response)));
+        }
+
+        List<SearchResult> merged = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        long scanned = 0;
+        long total = 0;
+        for (Map.Entry<String, CompletableFuture<SearchResponse>> entry : futures.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                SearchResponse response = entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+                merged.addAll(response.getResults());
+                scanned += response.getScanned();
+                total += response.getTotal();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for shard results", e);
+            } catch (Exception e) {
+                // Slow or missing shards degrade the answer instead of failing it
+                entry.getValue().cancel(true);
+                failed.add(entry.getKey());
+                log.warn("Shard {} did not answer {} in time: {}", entry.getKey(), path, e.toString());
+            }
+        }
+
+        // Each node returns its own top-k, so the merged top-k is exact over the shards that answered
+        merged.sort(Comparator.comparingDouble(SearchResult::getSimilarity).reversed());
+        List<SearchResult> results = merged.size() > topK ? new ArrayList<>(merged.subList(0, topK)) : merged;
+        return new DistributedSearchResult(results, nodes.size(), failed, scanned, total);
+    }
+
+    // Nodes that ran out of time say how much they scanned; nodes that do not report count as complete
+    private SearchResponse parseResults(String node, HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Node " + node + " answered " + response.statusCode());
+        }
+        try {
+            List<SearchResult> results = objectMapper.readValue(response.body(), RESULT_LIST);
+            long total = response.headers().firstValueAsLong("X-PlotArmor-Total").orElse(0);
+            long scanned = response.headers().firstValueAsLong("X-PlotArmor-Scanned").orElse(total);
+            return new SearchResponse(results, scanned, total);
+        } catch (IOException e) {
+            throw new IllegalStateException("Node " + node + " sent an unreadable result", e);
+        }
+    }
+
+    public String nodeFor(String id) {
+        // String.hashCode is specified, so routing is stable across coordinators and restarts
+        return nodes.get(Math.floorMod(id.hashCode(), nodes.size()));
+    }
+
+    public Vector store(Vector vector) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(post(nodeFor(vector.getId()) + "/vectors",
+                objectMapper.writeValueAsBytes(vector)));
+        return objectMapper.readValue(response.body(), Vector.class);
+    }
+
+    public Vector storeText(TextRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(post(nodeFor(request.getId()) + "/vectors/text",
+                objectMapper.writeValueAsBytes(request)));
+        return objectMapper.readValue(response.body(), Vector.class);
+    }
+
+    public Optional<Vector> retrieve(String id) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(nodeFor(id) + "/vectors/" + encode(id)))
+                .timeout(nodeTimeout)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        requireOk(request, response);
+        return Optional.of(objectMapper.readValue(response.body(), Vector.class));
+    }
+
+    public void delete(String id) throws IOException, InterruptedException {
+        send(HttpRequest.newBuilder(URI.create(nodeFor(id) + "/vectors/" + encode(id)))
+                .timeout(nodeTimeout)
+                .DELETE()
+                .build());
+    }
+
+    private HttpRequest post(String uri, byte[] body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(nodeTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        requireOk(request, response);
+        return response;
+    }
+
+    private void requireOk(HttpRequest request, HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException(request.method() + " " + request.uri() + " answered " + response.statusCode());
+        }
+    }
+
+    private static String encode(String id) {
+        return URLEncoder.encode(id, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,221 @@
+package com.plotarmordb.web.service;
+
+import com.plotarmordb.web.config.PlotArmorConfig.PlotArmorProperties;
+import com.plotarmordb.web.model.SearchResult;
+import com.plotarmordb.web.model.Vector;
+import com.plotarmordb.web.storage.LexicalStatistics;
+import com.plotarmordb.web.storage.PostingCursor;
+import com.plotarmordb.web.storage.VectorStorage;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+// BM25 over the inverted index of text documents. Query terms are scored document-at-a-time
+// with MaxScore: once the top-k threshold exceeds the combined upper bound of the weakest terms,
+// those terms stop producing candidates and are only probed for documents the others found.
+@Service
+public class LexicalSearchService {
+    private final VectorStorage storage;
+    private final TextEmbeddingService textEmbeddingService;
+    private final PlotArmorProperties.LexicalConfig config;
+
+    public LexicalSearchService(VectorStorage storage, TextEmbeddingService textEmbeddingService,
+                                PlotArmorProperties properties) {
+        this.storage = storage;
+        this.textEmbeddingService = textEmbeddingService;
+        this.config = properties.getLexical();
+    }
+
+    public List<SearchResult> search(String query, int topK, Map<String, String> filter) {
+        try {
+            if (topK <= 0) {
+                return new ArrayList<>();
+            }
+            LexicalStatistics statistics = storage.getLexicalStatistics();
+            if (statistics.getDocumentCount() <= 0) {
+                return new ArrayList<>();
+            }
+
+            Map<String, Integer> queryTerms = new LinkedHashMap<>();
+            for (String token : textEmbeddingService.tokenize(query)) {
+                queryTerms.merge(token, 1, Integer::sum);
+            }
+            List<TermCursor> cursors = new ArrayList<>();
+            List<Hit> hits;
+            // Filtered-out documents are only looked up when they would enter the top k
+            Map<String, Vector> fetched = new HashMap<>();
+            try {
+                for (Map.Entry<String, Integer> term : queryTerms.entrySet()) {
+                    PostingCursor postings = storage.openPostings(term.getKey());
+                    if (postings.exhausted()) {
+                        postings.close();
+                    } else {
+                        cursors.add(new TermCursor(postings, term.getValue(), statistics));
+                    }
+                }
+
+                hits = maxScore(cursors, topK, filter == null || filter.isEmpty() ? null : id -> {
+                    Optional<Vector> vector = storage.retrieve(id);
+                    vector.ifPresent(found -> fetched.put(id, found));
+                    return vector.isPresent() && ConcurrentVectorSearch.matchesFilter(vector.get(), filter);
+                });
+            } finally {
+                for (TermCursor cursor : cursors) {
+                    cursor.postings.close();
+                }
+            }
+
+            List<String> missing = new ArrayList<>();
+            for (Hit hit : hits) {
+                if (!fetched.containsKey(hit.id)) {
+                    missing.add(hit.id);
+                }
+            }
+            for (Vector vector : storage.retrieveBatch(missing)) {
+                fetched.put(vector.getId(), vector);
+            }
+
+            List<SearchResult> results = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                Vector vector = fetched.get(hit.id);
+                // A document deleted since its postings were read is skipped
+                if (vector != null) {
+                    results.add(new SearchResult(vector, hit.score));
+                }
+            }
+            return results;
+        } catch (Exception e) {
+            throw new RuntimeException("Lexical search failed", e);
+        }
+    }
+
+    private List<Hit> maxScore(List<TermCursor> cursors, int topK, DocumentFilter filter) throws Exception {
+        // Weakest terms first; bounds[i] is the best score terms 0..i can add together
+        cursors.sort(Comparator.comparingDouble(cursor -> cursor.upperBound));
+        int terms = cursors.size();
+        double[] bounds = new double[terms];
+        for (int i = 0; i < terms; i++) {
+            bounds[i] = cursors.get(i).upperBound + (i > 0 ? bounds[i - 1] : 0.0);
+        }
+
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Comparator.comparingDouble(hit -> hit.score));
+        double threshold = Double.NEGATIVE_INFINITY;
+        int firstEssential = 0;
+
+        while (firstEssential < terms) {
+            byte[] candidate = null;
+            for (int i = firstEssential; i < terms; i++) {
+                TermCursor cursor = cursors.get(i);
+                if (!cursor.exhausted()
+                        && (candidate == null || Arrays.compareUnsigned(cursor.documentKey(), candidate) < 0)) {
+                    candidate = cursor.documentKey();
+                }
+            }
+            if (candidate == null) {
+                break;
+            }
+
+            double score = 0.0;
+            for (int i = firstEssential; i < terms; i++) {
+                TermCursor cursor = cursors.get(i);
+                if (!cursor.exhausted() && Arrays.equals(cursor.documentKey(), candidate)) {
+                    score += cursor.score();
+                    cursor.next();
+                }
+            }
+            for (int i = firstEssential - 1; i >= 0 && score + bounds[i] > threshold; i--) {
+                TermCursor cursor = cursors.get(i);
+                if (cursor.advanceTo(candidate)) {
+                    score += cursor.score();
+                }
+            }
+
+            if (score <= threshold) {
+                continue;
+            }
+            String id = new String(candidate);
+            if (filter != null && !filter.accepts(id)) {
+                continue;
+            }
+            heap.add(new Hit(id, score));
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+            if (heap.size() == topK) {
+                threshold = heap.peek().score;
+                while (firstEssential < terms && bounds[firstEssential] <= threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(Comparator.comparingDouble((Hit hit) -> hit.score).reversed());
+        return hits;
+    }
+
+    private interface DocumentFilter {
+        boolean accepts(String id) throws Exception;
+    }
+
+    private static final class Hit {
+        private final String id;
+        private final double score;
+
+        Hit(String id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private final class TermCursor {
+        private final PostingCursor postings;
+        private final double weight;
+        private final double averageLength;
+        private final double upperBound;
+
+        TermCursor(PostingCursor postings, int queryFrequency, LexicalStatistics statistics) {
+            this.postings = postings;
+            long documents = statistics.getDocumentCount();
+            long matching = postings.getDocumentFrequency();
+            double idf = Math.log(1.0 + (documents - matching + 0.5) / (matching + 0.5));
+            this.weight = queryFrequency * idf;
+            this.averageLength = Math.max(statistics.getAverageLength(), 1.0);
+
+            // BM25 grows with the frequency and shrinks with the document length, so the term's
+            // highest frequency in its shortest document bounds every posting. Without stored
+            // bounds, fall back to the limit for unbounded frequency.
+            int maxFrequency = postings.getMaxFrequency();
+            this.upperBound = maxFrequency > 0
+                    ? scoreOf(maxFrequency, postings.getMinDocumentLength())
+                    : weight * (config.getK1() + 1.0);
+        }
+
+        boolean exhausted() {
+            return postings.exhausted();
+        }
+
+        byte[] documentKey() {
+            return postings.getDocumentKey();
+        }
+
+        double score() {
+            return scoreOf(postings.getFrequency(), postings.getDocumentLength());
+        }
+
+        void next() {
+            postings.next();
+        }
+
+        // Seeks to the first document >= target and reports whether it is the target
+        boolean advanceTo(byte[] target) {
+            postings.seek(target);
+            return !exhausted() && Arrays.equals(documentKey(), target);
+        }
+
+        private double scoreOf(double frequency, double documentLength) {
+            double norm = config.getK1() * (1.0 - config.getB() + config.getB() * documentLength / averageLength);
+            return weight * frequency * (config.getK1() + 1.0) / (frequency + norm);
+        }
+    }
+}
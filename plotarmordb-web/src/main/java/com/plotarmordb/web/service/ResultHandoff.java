@@ -0,0 +1,58 @@
+package com.plotarmordb.web.service;
+
+import com.plotarmordb.web.model.SearchResult;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Runs a producer of results on another thread and hands what it produces to a consumer on this
+// one through a bounded queue, so the consumer (e.g. a socket write) never runs inside whatever
+// the producer holds, such as an admission slot or a storage iterator. A consumer that falls
+// capacity results behind makes the producer wait; one that fails interrupts it.
+final class ResultHandoff {
+    private static final long POLL_MILLIS = 10;
+
+    private ResultHandoff() {
+    }
+
+    static <T> T stream(ExecutorService executor, int capacity,
+                        Function<Consumer<SearchResult>, T> producer, Consumer<SearchResult> consumer) {
+        BlockingQueue<SearchResult> queue = new ArrayBlockingQueue<>(capacity);
+        Future<T> produced = executor.submit(() -> producer.apply(result -> {
+            try {
+                queue.put(result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Result consumer is gone");
+            }
+        }));
+        try {
+            while (true) {
+                SearchResult result = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    consumer.accept(result);
+                } else if (produced.isDone() && queue.isEmpty()) {
+                    break;
+                }
+            }
+            return produced.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while streaming results");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            produced.cancel(true);
+        }
+    }
+}
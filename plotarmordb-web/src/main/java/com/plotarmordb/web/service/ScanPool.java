@@ -0,0 +1,104 @@
+package com.plotarmordb.web.service;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Similarity scans are pure CPU work, so they run on one platform thread per core shared by every
+// search in the process; virtual threads are left to request handling and other blocking work.
+// A query submits its chunks through a Job that keeps at most one task per worker in the pool's
+// FIFO queue. Each task scores one chunk and then requeues behind everything submitted since,
+// so concurrent queries take turns chunk by chunk instead of the first one holding every core.
+final class ScanPool {
+    // Roughly a millisecond of multiply-adds per chunk: enough to amortize the handoff, short
+    // enough for deadlines and for other queries to get a turn
+    static final long TARGET_CHUNK_FLOATS = 1L << 20;
+    private static final int MIN_CHUNK_SIZE = 64;
+    // Chunks per worker a collection is split into at least, so uneven chunks even out
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private static final ScanPool SHARED = new ScanPool(Runtime.getRuntime().availableProcessors());
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    private ScanPool(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "plotarmor-scan-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static ScanPool shared() {
+        return SHARED;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    // Vectors per chunk for a scan of collectionSize vectors of the given dimension, capped at
+    // maxChunkSize: sized for targetFloats of work, but small enough that a modest collection
+    // still spreads across every core
+    int chunkSize(long targetFloats, int dimension, long collectionSize, int maxChunkSize) {
+        long byWork = targetFloats / Math.max(1, dimension);
+        long bySpread = (collectionSize + (long) parallelism * CHUNKS_PER_WORKER - 1)
+                / ((long) parallelism * CHUNKS_PER_WORKER);
+        long size = Math.min(byWork, Math.max(MIN_CHUNK_SIZE, bySpread));
+        return (int) Math.max(1, Math.min(maxChunkSize, Math.max(MIN_CHUNK_SIZE, size)));
+    }
+
+    Job newJob() {
+        return new Job();
+    }
+
+    final class Job {
+        private final Queue<FutureTask<?>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger workers = new AtomicInteger();
+
+        <R> Future<R> submit(Callable<R> chunk) {
+            FutureTask<R> task = new FutureTask<>(chunk);
+            pending.add(task);
+            startWorker();
+            return task;
+        }
+
+        private void startWorker() {
+            int current;
+            while ((current = workers.get()) < parallelism) {
+                if (workers.compareAndSet(current, current + 1)) {
+                    executor.execute(this::runNext);
+                    return;
+                }
+            }
+        }
+
+        // A cancelled task is skipped by FutureTask.run, so cancelling queued chunks is cheap
+        private void runNext() {
+            FutureTask<?> task = pending.poll();
+            if (task != null) {
+                task.run();
+            }
+            if (!pending.isEmpty()) {
+                executor.execute(this::runNext);
+                return;
+            }
+            workers.decrementAndGet();
+            // A chunk added between the check and the decrement would otherwise wait for the next submit
+            if (!pending.isEmpty()) {
+                startWorker();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.plotarmordb.web.service;
+
+import java.util.concurrent.TimeUnit;
+
+// Deadline and cancellation flag shared by the batch tasks of one search. Tasks poll it between
+// vectors and stop where they are, so an expired query hands its workers back promptly.
+final class SearchDeadline {
+    private final boolean bounded;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    // timeoutMillis <= 0 means no deadline
+    SearchDeadline(long timeoutMillis) {
+        this.bounded = timeoutMillis > 0;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(timeoutMillis, 0));
+    }
+
+    boolean isBounded() {
+        return bounded;
+    }
+
+    long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    boolean expired() {
+        return cancelled || (bounded && remainingNanos() <= 0);
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+}
@@ -0,0 +1,10 @@
+package com.plotarmordb.web.service;
+
+// Thrown instead of running a search when the node is saturated; the controller answers 429
+public class SearchRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SearchRejectedException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package com.plotarmordb.web.service;
 
 import org.springframework.stereotype.Service;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -11,14 +12,23 @@ public class TextEmbeddingService {
     private static final int MAX_VOCABULARY_SIZE = 10000;
 
     public TextEmbeddingService() {
-        this.vocabulary = new HashMap<>();
+        this.vocabulary = new ConcurrentHashMap<>();
         this.vocabularyList = new ArrayList<>();
     }
 
+    // Embeds every tokenized text in parallel across cores; results keep the input order
+    public List<float[]> generateEmbeddingsFromTokens(List<List<String>> tokenized) {
+        return tokenized.parallelStream()
+                .map(this::generateEmbeddingFromTokens)
+                .collect(Collectors.toList());
+    }
+
     public float[] generateEmbedding(String text) {
-        // Preprocess text
-        List<String> tokens = tokenize(text.toLowerCase());
+        return generateEmbeddingFromTokens(tokenize(text));
+    }
 
+    // For callers that also index the tokens, so the text is only tokenized once
+    public float[] generateEmbeddingFromTokens(List<String> tokens) {
         // Calculate term frequencies for this document
         Map<String, Integer> termFrequencies = calculateTermFrequencies(tokens);
 
@@ -41,9 +51,10 @@ public class TextEmbeddingService {
         return embedding;
     }
 
-    private List<String> tokenize(String text) {
+    // Also the analyzer for the lexical index, so queries and documents split the same way
+    public List<String> tokenize(String text) {
         // Basic tokenization: split on whitespace and remove punctuation
-        return Arrays.stream(text.replaceAll("[^a-zA-Z0-9\\s]", "").split("\\s+"))
+        return Arrays.stream(text.toLowerCase().replaceAll("[^a-zA-Z0-9\\s]", "").split("\\s+"))
                 .filter(token -> !token.isEmpty())
                 .collect(Collectors.toList());
     }
@@ -56,7 +67,13 @@ public class TextEmbeddingService {
         return frequencies;
     }
 
-    private synchronized int getOrCreateTermIndex(String term) {
+    private int getOrCreateTermIndex(String term) {
+        // Known terms are read without locking, so parallel embedding only contends on new ones
+        Integer index = vocabulary.get(term);
+        return index != null ? index : createTermIndex(term);
+    }
+
+    private synchronized int createTermIndex(String term) {
         if (vocabulary.containsKey(term)) {
             return vocabulary.get(term);
         }
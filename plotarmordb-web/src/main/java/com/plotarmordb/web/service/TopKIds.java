@@ -0,0 +1,50 @@
+package com.plotarmordb.web.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Bounded top-k of ids and scores. Streamed searches rank with this instead of SearchResults,
+// which would keep every candidate's vector alive until the scan ends.
+final class TopKIds {
+    private final int capacity;
+    // Worst first, so the entry to evict is at the head
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry.score));
+
+    TopKIds(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void offer(String id, double score) {
+        if (heap.size() < capacity) {
+            heap.add(new Entry(id, score));
+        } else if (capacity > 0 && score > heap.peek().score) {
+            heap.poll();
+            heap.add(new Entry(id, score));
+        }
+    }
+
+    void addAll(TopKIds other) {
+        for (Entry entry : other.heap) {
+            offer(entry.id, entry.score);
+        }
+    }
+
+    // Best first
+    List<Entry> sorted() {
+        List<Entry> entries = new ArrayList<>(heap);
+        entries.sort(Comparator.comparingDouble((Entry entry) -> entry.score).reversed());
+        return entries;
+    }
+
+    static final class Entry {
+        final String id;
+        final double score;
+
+        Entry(String id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.plotarmordb.web.service;
 
 import com.plotarmordb.web.cache.SearchCache;
+import com.plotarmordb.web.config.PlotArmorConfig.PlotArmorProperties;
+import com.plotarmordb.web.model.SearchPriority;
+import com.plotarmordb.web.model.SearchRequest;
+import com.plotarmordb.web.model.SearchResponse;
 import com.plotarmordb.web.model.SearchResult;
 import com.plotarmordb.web.model.TextSearchRequest;
 import com.plotarmordb.web.model.Vector;
@@ -8,51 +12,223 @@ import com.plotarmordb.web.storage.VectorStorage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class VectorSearchService {
+    // First matches a streamed search lets pile up before its scan waits for the consumer
+    private static final int STREAM_QUEUE_CAPACITY = 256;
+
     private final VectorStorage storage;
     private final SearchCache cache;
     @Autowired
     private TextEmbeddingService textEmbeddingService;
+    @Autowired
+    private LexicalSearchService lexicalSearchService;
+    @Autowired
+    private PlotArmorProperties properties;
+    @Autowired
+    private BatchSizeTuner batchSizeTuner;
+    @Autowired
+    private AdmissionController admission;
+    // Async searches get a virtual thread each: they mostly wait on storage reads, the scan pool
+    // and admission, none of which should tie up a request thread
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public VectorSearchService(VectorStorage storage, SearchCache cache) {
         this.storage = storage;
         this.cache = cache;
     }
 
+    // Runs under plotarmor.search.timeout-ms; a search cut short returns what it scored so far
     public List<SearchResult> search(float[] queryVector, int topK, Map<String, String> filter) {
+        return search(queryVector, topK, filter, SearchPriority.NORMAL);
+    }
+
+    private List<SearchResult> search(float[] queryVector, int topK, Map<String, String> filter,
+                                      SearchPriority priority) {
+        return search(queryVector, topK, filter, new SearchDeadline(properties.getSearch().getTimeoutMs()), priority)
+                .getResults();
+    }
+
+    private SearchResponse search(float[] queryVector, int topK, Map<String, String> filter,
+                                  SearchDeadline deadline, SearchPriority priority) {
         // Generate cache key for filter
         String filterHash = filter != null ? filter.toString() : "";
 
         // Check cache first
         List<SearchResult> cachedResults = cache.get(queryVector, topK, filterHash);
         if (cachedResults != null) {
-            return cachedResults;
+            return new SearchResponse(cachedResults, 0, 0);
         }
 
-        try {
-            // Get all vectors and perform parallel search
-            List<Vector> vectors = storage.scanAll();
-            List<SearchResult> results = ConcurrentVectorSearch.searchParallel(
-                    vectors, queryVector, topK, filter
-            );
+        // Scan all vectors and perform parallel search
+        SearchResponse response = admittedScan(priority, deadline, () -> ConcurrentVectorSearch.searchParallel(
+                storage, batchSizeTuner, queryVector, topK, filter, Double.NEGATIVE_INFINITY, deadline
+        ), Function.identity());
 
-            // Cache results
-            cache.put(queryVector, topK, filterHash, results);
+        // Cache complete results only
+        if (!response.isPartial()) {
+            cache.put(queryVector, topK, filterHash, response.getResults());
+        }
+        return response;
+    }
 
-            return results;
-        } catch (Exception e) {
-            throw new RuntimeException("Search failed", e);
+    // The top k above a threshold are the cached top k cut at the threshold; a thresholded
+    // scan may hold fewer than k and is not cached
+    public SearchResponse search(SearchRequest request) {
+        SearchPriority priority = SearchPriority.parse(request.getPriority());
+        SearchDeadline deadline = new SearchDeadline(request.getTimeoutMillis() != null
+                ? request.getTimeoutMillis() : properties.getSearch().getTimeoutMs());
+        float[] queryVector = request.getQueryVector();
+        int limit = request.resultLimit();
+        Double minSimilarity = request.getMinSimilarity();
+        if (minSimilarity == null) {
+            if (request.isFirstMatches()) {
+                throw new IllegalArgumentException("First-match search needs a minSimilarity");
+            }
+            return search(queryVector, limit, request.getFilter(), deadline, priority);
         }
+
+        if (request.isFirstMatches()) {
+            return admittedScan(priority, deadline, () -> ConcurrentVectorSearch.searchFirstMatches(storage,
+                    batchSizeTuner, queryVector, limit, minSimilarity, request.getFilter(), deadline), null);
+        }
+        String filterHash = request.getFilter() != null ? request.getFilter().toString() : "";
+        List<SearchResult> cachedResults = cache.get(queryVector, limit, filterHash);
+        if (cachedResults != null) {
+            return new SearchResponse(cachedResults.stream()
+                    .filter(result -> result.getSimilarity() >= minSimilarity)
+                    .collect(Collectors.toList()), 0, 0);
+        }
+        return admittedScan(priority, deadline, () -> ConcurrentVectorSearch.searchParallel(storage, batchSizeTuner,
+                queryVector, limit, request.getFilter(), minSimilarity, deadline), Function.identity());
+    }
+
+    // Like search, but results go to the consumer as they are settled and the response carries
+    // coverage only. Streamed scans keep ids and scores rather than whole results and are not
+    // cached. The consumer always runs on this thread outside the admission slot: first matches
+    // reach it through a bounded queue from a scan running on another thread.
+    public SearchResponse searchStream(SearchRequest request, Consumer<SearchResult> consumer) {
+        SearchPriority priority = SearchPriority.parse(request.getPriority());
+        SearchDeadline deadline = new SearchDeadline(request.getTimeoutMillis() != null
+                ? request.getTimeoutMillis() : properties.getSearch().getTimeoutMs());
+        float[] queryVector = request.getQueryVector();
+        int limit = request.resultLimit();
+        Double minSimilarity = request.getMinSimilarity();
+        if (request.isFirstMatches()) {
+            if (minSimilarity == null) {
+                throw new IllegalArgumentException("First-match search needs a minSimilarity");
+            }
+            return ResultHandoff.stream(asyncExecutor, STREAM_QUEUE_CAPACITY, handoff ->
+                    admittedScan(priority, deadline, () -> ConcurrentVectorSearch.streamFirstMatches(storage,
+                            batchSizeTuner, queryVector, limit, minSimilarity, request.getFilter(), deadline, handoff),
+                            null), consumer);
+        }
+
+        String filterHash = request.getFilter() != null ? request.getFilter().toString() : "";
+        List<SearchResult> cachedResults = cache.get(queryVector, limit, filterHash);
+        if (cachedResults != null) {
+            cachedResults.stream()
+                    .filter(result -> minSimilarity == null || result.getSimilarity() >= minSimilarity)
+                    .forEach(consumer);
+            return new SearchResponse(Collections.emptyList(), 0, 0);
+        }
+        ConcurrentVectorSearch.RankedIds ranked = admittedScan(priority, deadline, () ->
+                ConcurrentVectorSearch.rankTopK(storage, batchSizeTuner, queryVector, limit, request.getFilter(),
+                        minSimilarity != null ? minSimilarity : Double.NEGATIVE_INFINITY, deadline),
+                ConcurrentVectorSearch.RankedIds::getCoverage);
+        // Read back outside the admission slot, so a slow reader does not count as a slow scan
+        ConcurrentVectorSearch.emitRanked(storage, ranked.getEntries(), consumer);
+        return ranked.getCoverage();
+    }
+
+    // Scans wait for a slot when admission control is on; cached answers never do. coverage reads
+    // how much a scan covered, so full scans can feed admission's latency baseline; first-match
+    // scans stop early by design and pass null.
+    private <T> T admittedScan(SearchPriority priority, SearchDeadline deadline, Supplier<T> scan,
+                               Function<T, SearchResponse> coverage) {
+        try (AdmissionController.Permit permit = admission.acquire(priority)) {
+            T response = scan.get();
+            if (deadline.expired()) {
+                permit.markOverloaded();
+            } else if (coverage != null) {
+                SearchResponse covered = coverage.apply(response);
+                if (!covered.isPartial()) {
+                    permit.recordFullScan(covered.getScanned());
+                }
+            }
+            return response;
+        }
+    }
+
+    // Completes with search's response, or exceptionally (wrapped in a CompletionException) with
+    // what it would throw, e.g. SearchRejectedException
+    public CompletableFuture<SearchResponse> searchAsync(SearchRequest request) {
+        return CompletableFuture.supplyAsync(() -> search(request), asyncExecutor);
+    }
+
+    public CompletableFuture<List<SearchResult>> searchByTextAsync(TextSearchRequest request) {
+        return CompletableFuture.supplyAsync(() -> searchByText(request), asyncExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        asyncExecutor.shutdownNow();
     }
 
     public List<SearchResult> searchByText(TextSearchRequest request) {
-        // Convert text query to vector embedding
-        float[] queryVector = textEmbeddingService.generateEmbedding(request.getQuery());
+        String mode = request.getMode() != null ? request.getMode().toLowerCase() : "vector";
+        SearchPriority priority = SearchPriority.parse(request.getPriority());
+        switch (mode) {
+            case "vector":
+                // Convert text query to vector embedding and perform vector search
+                return search(textEmbeddingService.generateEmbedding(request.getQuery()),
+                        request.getTopK(), request.getFilter(), priority);
+            case "lexical":
+                return lexicalSearchService.search(request.getQuery(), request.getTopK(), request.getFilter());
+            case "hybrid":
+                return hybridSearch(request, priority);
+            default:
+                throw new IllegalArgumentException("Unknown search mode: " + request.getMode());
+        }
+    }
 
-        // Perform vector search
-        return search(queryVector, request.getTopK(), request.getFilter());
+    // Reciprocal rank fusion: each ranking contributes 1 / (k + rank), so documents found by
+    // both rise to the top without having to compare cosine and BM25 scores directly
+    private List<SearchResult> hybridSearch(TextSearchRequest request, SearchPriority priority) {
+        PlotArmorProperties.LexicalConfig config = properties.getLexical();
+        int depth = Math.max(request.getTopK(), config.getHybridCandidates());
+        List<SearchResult> vectorResults = search(textEmbeddingService.generateEmbedding(request.getQuery()),
+                depth, request.getFilter(), priority);
+        List<SearchResult> lexicalResults = lexicalSearchService.search(request.getQuery(), depth, request.getFilter());
+
+        Map<String, Vector> vectors = new HashMap<>();
+        Map<String, Double> fused = new HashMap<>();
+        for (List<SearchResult> ranking : List.of(vectorResults, lexicalResults)) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                Vector vector = ranking.get(rank).getVector();
+                vectors.putIfAbsent(vector.getId(), vector);
+                fused.merge(vector.getId(), 1.0 / (config.getRrfK() + rank + 1), Double::sum);
+            }
+        }
+
+        List<SearchResult> results = new ArrayList<>(fused.size());
+        for (Map.Entry<String, Double> entry : fused.entrySet()) {
+            results.add(new SearchResult(vectors.get(entry.getKey()), entry.getValue()));
+        }
+        results.sort(Comparator.comparingDouble(SearchResult::getSimilarity).reversed());
+        return results.size() > request.getTopK()
+                ? new ArrayList<>(results.subList(0, Math.max(request.getTopK(), 0)))
+                : results;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.plotarmordb.web.storage;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Inverted index changes from one write, added to the same WriteBatch as the vectors.
+// Postings are keyed term \0 id -> (term frequency, document length); each document also keeps
+// the list of terms it was indexed under so a later overwrite or delete can remove them.
+// Per term, the statistics keep its document frequency under term \0, and the bounds column
+// (merged with max) keeps the highest frequency and shortest document it has been indexed with,
+// enough to bound the term's BM25 score without reading its postings.
+final class LexicalIndexUpdate {
+    static final byte[] DOCUMENT_COUNT_KEY = "documents".getBytes();
+    static final byte[] TOTAL_LENGTH_KEY = "length".getBytes();
+    static final byte MAX_FREQUENCY = 'f';
+    static final byte MIN_LENGTH = 'l';
+
+    private final RocksDB db;
+    private final WriteBatch batch;
+    private final ColumnFamilyHandle postingsColumn;
+    private final ColumnFamilyHandle documentsColumn;
+    private final ColumnFamilyHandle boundsColumn;
+    // Documents already changed in this batch; a null value means removed
+    private final Map<String, byte[]> pending = new HashMap<>();
+    private long documents;
+    private long totalLength;
+    private final Map<String, Long> documentFrequencies = new HashMap<>();
+
+    LexicalIndexUpdate(RocksDB db, WriteBatch batch, ColumnFamilyHandle postingsColumn,
+                       ColumnFamilyHandle documentsColumn, ColumnFamilyHandle boundsColumn) {
+        this.db = db;
+        this.batch = batch;
+        this.postingsColumn = postingsColumn;
+        this.documentsColumn = documentsColumn;
+        this.boundsColumn = boundsColumn;
+    }
+
+    void add(String id, List<String> tokens) throws RocksDBException, IOException {
+        remove(id);
+
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        byte[] documentKey = id.getBytes();
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(record)) {
+            out.writeInt(tokens.size());
+            out.writeInt(frequencies.size());
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                out.writeUTF(entry.getKey());
+                batch.put(postingsColumn, postingKey(entry.getKey(), documentKey),
+                        ByteBuffer.allocate(2 * Integer.BYTES).putInt(entry.getValue()).putInt(tokens.size()).array());
+                documentFrequencies.merge(entry.getKey(), 1L, Long::sum);
+                // max compares bytes, so big-endian ints order correctly; the shortest length is the
+                // largest complement
+                batch.merge(boundsColumn, boundKey(entry.getKey(), MAX_FREQUENCY), encodeBound(entry.getValue()));
+                batch.merge(boundsColumn, boundKey(entry.getKey(), MIN_LENGTH),
+                        encodeBound(Integer.MAX_VALUE - tokens.size()));
+            }
+        }
+        batch.put(documentsColumn, documentKey, record.toByteArray());
+        pending.put(id, record.toByteArray());
+        documents++;
+        totalLength += tokens.size();
+    }
+
+    // Safe to call for ids that were never indexed, e.g. plain vector writes
+    void remove(String id) throws RocksDBException, IOException {
+        byte[] documentKey = id.getBytes();
+        byte[] record = pending.containsKey(id) ? pending.get(id) : db.get(documentsColumn, documentKey);
+        if (record == null) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            int length = in.readInt();
+            int terms = in.readInt();
+            for (int i = 0; i < terms; i++) {
+                String term = in.readUTF();
+                batch.delete(postingsColumn, postingKey(term, documentKey));
+                documentFrequencies.merge(term, -1L, Long::sum);
+            }
+            totalLength -= length;
+        }
+        batch.delete(documentsColumn, documentKey);
+        pending.put(id, null);
+        documents--;
+    }
+
+    void writeStatistics(ColumnFamilyHandle statisticsColumn) throws RocksDBException {
+        if (documents != 0) {
+            batch.merge(statisticsColumn, DOCUMENT_COUNT_KEY, encode(documents));
+        }
+        if (totalLength != 0) {
+            batch.merge(statisticsColumn, TOTAL_LENGTH_KEY, encode(totalLength));
+        }
+        for (Map.Entry<String, Long> entry : documentFrequencies.entrySet()) {
+            if (entry.getValue() != 0) {
+                batch.merge(statisticsColumn, postingPrefix(entry.getKey()), encode(entry.getValue()));
+            }
+        }
+    }
+
+    // Terms never contain \0, so each term's postings are one contiguous key range sorted by id
+    static byte[] postingKey(String term, byte[] documentKey) {
+        return postingKey(postingPrefix(term), documentKey);
+    }
+
+    static byte[] postingKey(byte[] prefix, byte[] documentKey) {
+        byte[] key = new byte[prefix.length + documentKey.length];
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        System.arraycopy(documentKey, 0, key, prefix.length, documentKey.length);
+        return key;
+    }
+
+    static byte[] postingPrefix(String term) {
+        byte[] termBytes = term.getBytes();
+        byte[] prefix = new byte[termBytes.length + 1];
+        System.arraycopy(termBytes, 0, prefix, 0, termBytes.length);
+        return prefix;
+    }
+
+    static byte[] boundKey(String term, byte kind) {
+        byte[] prefix = postingPrefix(term);
+        byte[] key = Arrays.copyOf(prefix, prefix.length + 1);
+        key[prefix.length] = kind;
+        return key;
+    }
+
+    static byte[] encodeBound(int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+
+    static int decodeBound(byte[] value) {
+        return value == null ? 0 : ByteBuffer.wrap(value).getInt();
+    }
+
+    // uint64add expects fixed 64-bit little-endian values; adding a negative wraps around
+    static byte[] encode(long value) {
+        return ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array();
+    }
+
+    static long decode(byte[] value) {
+        return value == null ? 0 : ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN).getLong();
+    }
+}
@@ -0,0 +1,23 @@
+package com.plotarmordb.web.storage;
+
+public final class LexicalStatistics {
+    private final long documentCount;
+    private final long totalLength;
+
+    LexicalStatistics(long documentCount, long totalLength) {
+        this.documentCount = documentCount;
+        this.totalLength = totalLength;
+    }
+
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public double getAverageLength() {
+        return documentCount == 0 ? 0.0 : (double) totalLength / documentCount;
+    }
+}
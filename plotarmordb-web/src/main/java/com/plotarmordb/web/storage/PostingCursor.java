@@ -0,0 +1,96 @@
+package com.plotarmordb.web.storage;
+
+import org.rocksdb.RocksIterator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// One term's postings in id order (the byte order of the stored keys), read from RocksDB as the
+// cursor moves, so a list that is only probed is never read in full. Close it to free the iterator.
+public final class PostingCursor implements AutoCloseable {
+    private final RocksIterator iterator;
+    private final byte[] prefix;
+    private final long documentFrequency;
+    private final int maxFrequency;
+    private final int minDocumentLength;
+    private byte[] documentKey;
+    private int frequency;
+    private int documentLength;
+
+    PostingCursor(RocksIterator iterator, byte[] prefix, long documentFrequency, int maxFrequency,
+                  int minDocumentLength) {
+        this.iterator = iterator;
+        this.prefix = prefix;
+        this.documentFrequency = documentFrequency;
+        this.maxFrequency = maxFrequency;
+        this.minDocumentLength = minDocumentLength;
+        iterator.seek(prefix);
+        load();
+    }
+
+    // Documents indexed under the term
+    public long getDocumentFrequency() {
+        return documentFrequency;
+    }
+
+    // Highest frequency and shortest document seen for the term since it was first indexed; deletes
+    // do not lower them, so they only ever overstate a posting. 0 if the term predates them.
+    public int getMaxFrequency() {
+        return maxFrequency;
+    }
+
+    public int getMinDocumentLength() {
+        return minDocumentLength;
+    }
+
+    public boolean exhausted() {
+        return documentKey == null;
+    }
+
+    public byte[] getDocumentKey() {
+        return documentKey;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    public int getDocumentLength() {
+        return documentLength;
+    }
+
+    public void next() {
+        iterator.next();
+        load();
+    }
+
+    // Moves to the first document >= target, never backwards
+    public void seek(byte[] target) {
+        if (exhausted() || Arrays.compareUnsigned(documentKey, target) >= 0) {
+            return;
+        }
+        iterator.seek(LexicalIndexUpdate.postingKey(prefix, target));
+        load();
+    }
+
+    private void load() {
+        if (!iterator.isValid()) {
+            documentKey = null;
+            return;
+        }
+        byte[] key = iterator.key();
+        if (key.length < prefix.length || !Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length)) {
+            documentKey = null;
+            return;
+        }
+        documentKey = Arrays.copyOfRange(key, prefix.length, key.length);
+        ByteBuffer value = ByteBuffer.wrap(iterator.value());
+        frequency = value.getInt();
+        documentLength = value.getInt();
+    }
+
+    @Override
+    public void close() {
+        iterator.close();
+    }
+}
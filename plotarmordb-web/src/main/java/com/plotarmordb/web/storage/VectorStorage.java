@@ -1,9 +1,12 @@
 package com.plotarmordb.web.storage;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plotarmordb.web.config.PlotArmorConfig.PlotArmorProperties;
 import com.plotarmordb.web.model.Vector;
 
 import org.rocksdb.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
@@ -13,40 +16,205 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 @Component
 public class VectorStorage {
+    private static final Logger log = LoggerFactory.getLogger(VectorStorage.class);
+
+    private static final byte[] POSTINGS_COLUMN = "postings".getBytes();
+    private static final byte[] LEXICAL_DOCUMENTS_COLUMN = "lexical_documents".getBytes();
+    private static final byte[] LEXICAL_STATS_COLUMN = "lexical_stats".getBytes();
+    private static final byte[] TERM_BOUNDS_COLUMN = "term_bounds".getBytes();
+
     private RocksDB db;
+    private List<ColumnFamilyHandle> columnHandles = List.of();
+    private ColumnFamilyHandle postingsColumn;
+    private ColumnFamilyHandle lexicalDocumentsColumn;
+    private ColumnFamilyHandle lexicalStatsColumn;
+    private ColumnFamilyHandle termBoundsColumn;
+    // Options the open database was built from; RocksDB only frees them when they are closed
+    private final List<RocksObject> dbOptions = new ArrayList<>();
+    // Overwrites and deletes read a document's indexed terms before removing them
+    private final Object lexicalLock = new Object();
     private final ObjectMapper objectMapper;
-    private static final String DB_PATH = "plotarmor-data";
+    private final PlotArmorProperties properties;
+    private ScheduledExecutorService catchUpScheduler;
+    // Runs the *Async writes
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile long lastCatchUpTime;
 
-    public VectorStorage(ObjectMapper objectMapper) {
+    public VectorStorage(ObjectMapper objectMapper, PlotArmorProperties properties) {
         this.objectMapper = objectMapper;
+        this.properties = properties;
     }
 
     @PostConstruct
     public void init() throws RocksDBException, IOException {
         RocksDB.loadLibrary();
-        Files.createDirectories(Path.of(DB_PATH));
+        String dbPath = properties.getDb().getPath();
+        PlotArmorProperties.ReplicaConfig replica = properties.getReplica();
 
         Options options = new Options();
+        dbOptions.add(options);
         options.setCreateIfMissing(true);
-        db = RocksDB.open(options, DB_PATH);
+        if (replica.isEnabled()) {
+            // Follow the writer process's data directory as a RocksDB secondary instance
+            options.setMaxOpenFiles(-1);
+            Files.createDirectories(Path.of(replica.getSecondaryPath()));
+            db = openDb(options, dbPath, replica.getSecondaryPath());
+            lastCatchUpTime = System.currentTimeMillis();
+            startCatchUp(replica.getCatchUpIntervalMs());
+        } else {
+            Files.createDirectories(Path.of(dbPath));
+            db = openDb(options, dbPath, null);
+        }
+    }
+
+    // Vectors live in the default column family; the text inverted index beside them
+    private RocksDB openDb(Options options, String dbPath, String secondaryPath) throws RocksDBException {
+        DBOptions databaseOptions = new DBOptions(options).setCreateMissingColumnFamilies(true);
+        ColumnFamilyOptions columnOptions = new ColumnFamilyOptions(options);
+        ColumnFamilyOptions statsOptions = new ColumnFamilyOptions(options).setMergeOperatorName("uint64add");
+        ColumnFamilyOptions boundsOptions = new ColumnFamilyOptions(options).setMergeOperatorName("max");
+        dbOptions.addAll(List.of(databaseOptions, columnOptions, statsOptions, boundsOptions));
+        List<ColumnFamilyDescriptor> descriptors = List.of(
+                new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, columnOptions),
+                new ColumnFamilyDescriptor(POSTINGS_COLUMN, columnOptions),
+                new ColumnFamilyDescriptor(LEXICAL_DOCUMENTS_COLUMN, columnOptions),
+                new ColumnFamilyDescriptor(LEXICAL_STATS_COLUMN, statsOptions),
+                new ColumnFamilyDescriptor(TERM_BOUNDS_COLUMN, boundsOptions));
+        List<ColumnFamilyHandle> handles = new ArrayList<>();
+        RocksDB opened = secondaryPath != null
+                ? RocksDB.openAsSecondary(databaseOptions, dbPath, secondaryPath, descriptors, handles)
+                : RocksDB.open(databaseOptions, dbPath, descriptors, handles);
+        columnHandles = handles;
+        postingsColumn = handles.get(1);
+        lexicalDocumentsColumn = handles.get(2);
+        lexicalStatsColumn = handles.get(3);
+        termBoundsColumn = handles.get(4);
+        return opened;
+    }
+
+    private void startCatchUp(long intervalMs) {
+        catchUpScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "plotarmor-replica-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        catchUpScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                db.tryCatchUpWithPrimary();
+                lastCatchUpTime = System.currentTimeMillis();
+            } catch (RocksDBException e) {
+                log.warn("Replica catch-up with primary failed", e);
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
     }
 
     @PreDestroy
     public void cleanup() {
+        if (catchUpScheduler != null) {
+            catchUpScheduler.shutdownNow();
+        }
+        // Writes already accepted, and a catch-up already under way, finish before the database
+        // goes away
+        asyncExecutor.shutdown();
+        try {
+            if (catchUpScheduler != null) {
+                catchUpScheduler.awaitTermination(30, TimeUnit.SECONDS);
+            }
+            asyncExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ColumnFamilyHandle handle : columnHandles) {
+            handle.close();
+        }
         if (db != null) {
             db.close();
         }
+        for (RocksObject options : dbOptions) {
+            options.close();
+        }
+    }
+
+    public boolean isReadOnly() {
+        return properties.getReplica().isEnabled();
+    }
+
+    public Map<String, Object> getReplicaStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("replica", isReadOnly());
+        status.put("sequenceNumber", db.getLatestSequenceNumber());
+        if (isReadOnly()) {
+            status.put("lastCatchUpTime", lastCatchUpTime);
+            status.put("lagMs", System.currentTimeMillis() - lastCatchUpTime);
+        }
+        return status;
+    }
+
+    private void requireWritable() {
+        if (isReadOnly()) {
+            throw new IllegalStateException("Storage is a read-only replica");
+        }
     }
 
     public void store(Vector vector) throws RocksDBException, IOException {
-        byte[] key = vector.getId().getBytes();
-        byte[] value = objectMapper.writeValueAsBytes(vector);
-        db.put(key, value);
+        storeBatch(List.of(vector));
+    }
+
+    // Completes when store would have returned; a failure arrives wrapped in a CompletionException
+    public CompletableFuture<Void> storeAsync(Vector vector) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                store(vector);
+            } catch (RocksDBException | IOException e) {
+                throw new CompletionException(e);
+            }
+        }, asyncExecutor);
+    }
+
+    // All vectors land in one atomic write; ids that were indexed as text before lose their postings
+    public void storeBatch(List<Vector> vectors) throws RocksDBException, IOException {
+        storeTextBatch(vectors, null);
+    }
+
+    public void storeText(Vector vector, List<String> tokens) throws RocksDBException, IOException {
+        storeTextBatch(List.of(vector), List.of(tokens));
+    }
+
+    // Stores the vectors and indexes each one's tokens for lexical search, in one atomic write
+    public void storeTextBatch(List<Vector> vectors, List<List<String>> tokens) throws RocksDBException, IOException {
+        requireWritable();
+        synchronized (lexicalLock) {
+            try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                LexicalIndexUpdate update = new LexicalIndexUpdate(db, batch, postingsColumn,
+                        lexicalDocumentsColumn, termBoundsColumn);
+                for (int i = 0; i < vectors.size(); i++) {
+                    Vector vector = vectors.get(i);
+                    batch.put(vector.getId().getBytes(), objectMapper.writeValueAsBytes(vector));
+                    if (tokens != null) {
+                        update.add(vector.getId(), tokens.get(i));
+                    } else {
+                        update.remove(vector.getId());
+                    }
+                }
+                update.writeStatistics(lexicalStatsColumn);
+                db.write(writeOptions, batch);
+            }
+        }
     }
 
     public Optional<Vector> retrieve(String id) throws RocksDBException, IOException {
@@ -60,9 +228,82 @@ public class VectorStorage {
         return Optional.of(objectMapper.readValue(value, Vector.class));
     }
 
-    public void delete(String id) throws RocksDBException {
-        byte[] key = id.getBytes();
-        db.delete(key);
+    // Missing ids are left out
+    public List<Vector> retrieveBatch(List<String> ids) throws RocksDBException, IOException {
+        List<byte[]> keys = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            keys.add(id.getBytes());
+        }
+        List<Vector> vectors = new ArrayList<>(ids.size());
+        for (byte[] value : db.multiGetAsList(keys)) {
+            if (value != null) {
+                vectors.add(objectMapper.readValue(value, Vector.class));
+            }
+        }
+        return vectors;
+    }
+
+    public void delete(String id) throws RocksDBException, IOException {
+        requireWritable();
+        synchronized (lexicalLock) {
+            try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                LexicalIndexUpdate update = new LexicalIndexUpdate(db, batch, postingsColumn,
+                        lexicalDocumentsColumn, termBoundsColumn);
+                batch.delete(id.getBytes());
+                update.remove(id);
+                update.writeStatistics(lexicalStatsColumn);
+                db.write(writeOptions, batch);
+            }
+        }
+    }
+
+    // One iterator pass like scanAll, but vectors are handed to the consumer batchSize at a time
+    // as they are read, so callers can work on a batch while the scan goes on. stop is polled
+    // every 64 vectors; returns false if it ended the scan before the last vector.
+    public boolean scanBatches(int batchSize, BooleanSupplier stop, Consumer<List<Vector>> consumer)
+            throws IOException {
+        try (RocksIterator iterator = db.newIterator()) {
+            List<Vector> batch = new ArrayList<>(batchSize);
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                if (batch.size() % 64 == 0 && stop.getAsBoolean()) {
+                    return false;
+                }
+                batch.add(objectMapper.readValue(iterator.value(), Vector.class));
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+            return true;
+        }
+    }
+
+    // RocksDB's estimate of the stored vector count; cheap, but can be off after deletes
+    public long getApproximateCount() throws RocksDBException {
+        return db.getLongProperty("rocksdb.estimate-num-keys");
+    }
+
+    // The caller closes the cursor; a term without statistics has a document frequency of 0
+    public PostingCursor openPostings(String term) throws RocksDBException {
+        byte[] prefix = LexicalIndexUpdate.postingPrefix(term);
+        List<byte[]> values = db.multiGetAsList(List.of(lexicalStatsColumn, termBoundsColumn, termBoundsColumn),
+                List.of(prefix, LexicalIndexUpdate.boundKey(term, LexicalIndexUpdate.MAX_FREQUENCY),
+                        LexicalIndexUpdate.boundKey(term, LexicalIndexUpdate.MIN_LENGTH)));
+        long documentFrequency = LexicalIndexUpdate.decode(values.get(0));
+        int maxFrequency = LexicalIndexUpdate.decodeBound(values.get(1));
+        int minDocumentLength = values.get(2) == null
+                ? 0 : Integer.MAX_VALUE - LexicalIndexUpdate.decodeBound(values.get(2));
+        return new PostingCursor(db.newIterator(postingsColumn), prefix, documentFrequency, maxFrequency,
+                minDocumentLength);
+    }
+
+    public LexicalStatistics getLexicalStatistics() throws RocksDBException {
+        List<byte[]> values = db.multiGetAsList(List.of(lexicalStatsColumn, lexicalStatsColumn),
+                List.of(LexicalIndexUpdate.DOCUMENT_COUNT_KEY, LexicalIndexUpdate.TOTAL_LENGTH_KEY));
+        return new LexicalStatistics(LexicalIndexUpdate.decode(values.get(0)), LexicalIndexUpdate.decode(values.get(1)));
     }
 
     public List<Vector> scanAll() throws RocksDBException, IOException {